@@ -0,0 +1,59 @@
+package org.haozhang.getty.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation marks an interface method as a getter chain to be generated at compile time by
+ *   the {@link GettyPathProcessor}.
+ * <br/><br/>
+ *
+ * The annotated method must take the head of the chain as its first parameter. The chain follows
+ *   the same conventions as the Getty library:
+ * <ul>
+ *   <li>
+ *     {@code R method(H head)} returns {@code null} if any link throws an exception or returns
+ *       {@code null}, like {@code Getty.of(head).get(...).get()}
+ *   </li>
+ *   <li>
+ *     {@code R method(H head, R defaultValue)} returns {@code defaultValue} instead, like
+ *       {@code Getty.getOrDefault}
+ *   </li>
+ *   <li>
+ *     {@code R method(H head)} with {@link #nonNull()} set throws a {@link NullPointerException}
+ *       instead, like {@code Getty.getNonNull}
+ *   </li>
+ *   <li>
+ *     A {@code null} head throws a {@link NullPointerException} in every case, like
+ *       {@code Getty.of(null)}
+ *   </li>
+ * </ul>
+ *
+ * For example:
+ * <pre>{@code
+ *   public interface OrderPaths {
+ *       @GettyPath("customer.address.zip")
+ *       String zip(Order order, String defaultZip);
+ *   }
+ *
+ *   String zip = new Getty_OrderPaths().zip(order, "00000");
+ * }</pre>
+ *
+ * The annotation is only retained in source code, so generated code carries no runtime dependency.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface GettyPath {
+    /**
+     * @return The dot-separated property names making up the getter chain, resolved to
+     *   {@code getX()}, {@code isX()}, or {@code x()} methods
+     */
+    String value();
+
+    /**
+     * @return Whether to throw a {@link NullPointerException} instead of returning {@code null}
+     */
+    boolean nonNull() default false;
+}
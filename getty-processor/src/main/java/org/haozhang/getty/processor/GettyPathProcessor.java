@@ -0,0 +1,376 @@
+package org.haozhang.getty.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * This annotation processor generates an implementation for every interface declaring
+ *   {@link GettyPath} methods.
+ * <br/><br/>
+ *
+ * For an interface {@code a.b.OrderPaths}, the class {@code a.b.Getty_OrderPaths} is generated.
+ *   Each of its methods is straight-line, null-checked Java code equivalent to the getter chain
+ *   described by the annotation, wrapped in a single {@code try}-{@code catch} block. The property
+ *   names are resolved against the declared types at compile time, so a typo in a path is a
+ *   compilation error rather than a runtime {@code null}.
+ * <br/><br/>
+ *
+ * Types are written out from their elements' qualified names rather than with
+ *   {@link TypeMirror#toString()}, so that wildcard-typed properties (whose values have captured
+ *   types, which cannot be written in source code) are declared with their upper bounds.
+ * <br/><br/>
+ *
+ * The generated code does not reference the Getty library at all, so it performs exactly like the
+ *   equivalent hand-written code.
+ */
+@SupportedAnnotationTypes("org.haozhang.getty.processor.GettyPath")
+public class GettyPathProcessor extends AbstractProcessor {
+    /**
+     * The prefix of generated class names
+     */
+    static final String CLASS_PREFIX = "Getty_";
+
+    /**
+     * The prefixes tried, in order, when resolving a property name to a getter method
+     */
+    private static final String[] GETTER_PREFIXES = {"get", "is", ""};
+
+    /**
+     * The message of the {@link NullPointerException} thrown for a {@code null} head, the same as
+     *   the one thrown by {@code Getty.of(null)}
+     */
+    private static final String NULL_HEAD_ERROR = "Getty chains cannot start with a null value.";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        final Set<TypeElement> interfaces = new LinkedHashSet<>();
+
+        for (Element element : round.getElementsAnnotatedWith(GettyPath.class)) {
+            final TypeElement owner = (TypeElement) element.getEnclosingElement();
+            if (ElementKind.INTERFACE != owner.getKind()) {
+                error(element, "@GettyPath methods must be declared in an interface");
+                continue;
+            }
+            interfaces.add(owner);
+        }
+
+        interfaces.forEach(this::generate);
+        return true;
+    }
+
+    //==============================================================================================
+    // Code Generation
+    //==============================================================================================
+
+    /**
+     * Generate the implementation of an interface declaring {@link GettyPath} methods.
+     *
+     * @param owner The interface
+     */
+    private void generate(TypeElement owner) {
+        // Implement inherited @GettyPath methods as well, so that path interfaces can be extended.
+        final List<ExecutableElement> abstractMethods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(
+            processingEnv.getElementUtils().getAllMembers(owner))) {
+            if (!method.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+            if (null == method.getAnnotation(GettyPath.class)) {
+                error(owner, "Abstract method " + method + " must be annotated with @GettyPath");
+                return;
+            }
+            abstractMethods.add(method);
+        }
+
+        final StringBuilder body = new StringBuilder();
+        for (ExecutableElement method : abstractMethods) {
+            final String implementation = generateMethod(method);
+            if (null == implementation) {
+                return;
+            }
+            body.append(implementation);
+        }
+
+        final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(owner);
+        final String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        final String className = CLASS_PREFIX + binaryName(owner, packageName).replace('.', '_');
+        final String qualifiedName =
+            packageName.isEmpty() ? className : packageName + '.' + className;
+
+        try (Writer writer = processingEnv.getFiler()
+            .createSourceFile(qualifiedName, owner)
+            .openWriter()) {
+            if (!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+            writer.write(
+                "// Generated by " + GettyPathProcessor.class.getName() + "; do not edit.\n"
+            );
+            writer.write("public final class " + className + " implements "
+                + owner.getQualifiedName() + " {\n");
+            writer.write(body.toString());
+            writer.write("}\n");
+        } catch (IOException exception) {
+            error(owner, "Could not write " + qualifiedName + ": " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Generate the implementation of a single {@link GettyPath} method.
+     *
+     * @param method The method
+     * @return The source code of the method, or {@code null} if it is invalid
+     */
+    private String generateMethod(ExecutableElement method) {
+        final Types types = processingEnv.getTypeUtils();
+        final GettyPath annotation = method.getAnnotation(GettyPath.class);
+        final List<? extends VariableElement> parameters = method.getParameters();
+        final TypeMirror returnType = method.getReturnType();
+
+        if (!method.getTypeParameters().isEmpty()) {
+            error(method, "@GettyPath methods cannot declare type parameters");
+            return null;
+        }
+        if (parameters.isEmpty() || parameters.size() > 2) {
+            error(method, "@GettyPath methods take the head and, optionally, a default value");
+            return null;
+        }
+        if (2 == parameters.size()) {
+            if (annotation.nonNull()) {
+                error(method, "@GettyPath(nonNull = true) methods cannot take a default value");
+                return null;
+            }
+            if (!types.isSameType(parameters.get(1).asType(), returnType)) {
+                error(method, "The default value must have the same type as the return value");
+                return null;
+            }
+        } else if (returnType.getKind().isPrimitive() && !annotation.nonNull()) {
+            error(
+                method, "@GettyPath methods returning a primitive need a default value or nonNull"
+            );
+            return null;
+        }
+
+        final String head = parameters.get(0).getSimpleName().toString();
+        final String fallback = annotation.nonNull()
+            ? "throw new java.lang.NullPointerException();"
+            : "return " + (2 == parameters.size() ? parameters.get(1).getSimpleName() : "null")
+                + ";";
+
+        final StringBuilder code = new StringBuilder();
+        code.append("\n    @java.lang.Override\n    public ")
+            .append(typeName(returnType)).append(' ').append(method.getSimpleName()).append('(');
+        for (int i = 0; i < parameters.size(); i++) {
+            code.append(i > 0 ? ", " : "")
+                .append("final ").append(typeName(parameters.get(i).asType())).append(' ')
+                .append(parameters.get(i).getSimpleName());
+        }
+
+        // As with Getty.of(), a null head is a programming error rather than a missing value.
+        code.append(") {\n")
+            .append("        java.util.Objects.requireNonNull(").append(head).append(", \"")
+            .append(NULL_HEAD_ERROR).append("\");\n")
+            .append("        try {\n");
+
+        final String[] properties = annotation.value().split("\\.", -1);
+        TypeMirror current = parameters.get(0).asType();
+        String previous = head;
+
+        for (int i = 0; i < properties.length; i++) {
+            if (TypeKind.DECLARED != current.getKind()) {
+                error(method, "Cannot resolve \"" + properties[i] + "\" on " + current);
+                return null;
+            }
+
+            final ExecutableElement getter = findGetter((DeclaredType) current, properties[i]);
+            if (null == getter) {
+                error(method, "No public getter for \"" + properties[i] + "\" on " + current);
+                return null;
+            }
+
+            // Capture wildcards first, and continue from the upper bound of a captured type.
+            current = ((ExecutableType) types.asMemberOf(
+                (DeclaredType) types.capture(current), getter
+            )).getReturnType();
+            while (TypeKind.TYPEVAR == current.getKind()) {
+                current = ((TypeVariable) current).getUpperBound();
+            }
+
+            final String variable = "value$" + i;
+            code.append("            final ").append(typeName(current)).append(' ').append(variable)
+                .append(" = ").append(previous).append('.').append(getter.getSimpleName())
+                .append("();\n");
+            if (!current.getKind().isPrimitive() && i < properties.length - 1) {
+                code.append("            if (null == ").append(variable).append(") { ")
+                    .append(fallback).append(" }\n");
+            }
+            previous = variable;
+        }
+
+        if (!types.isAssignable(current, returnType)) {
+            error(
+                method,
+                "The path ends with " + current + ", which is not assignable to " + returnType
+            );
+            return null;
+        }
+
+        if (current.getKind().isPrimitive()) {
+            code.append("            return ").append(previous).append(";\n");
+        } else {
+            code.append("            if (null == ").append(previous).append(") { ")
+                .append(fallback).append(" }\n")
+                .append("            return ").append(previous).append(";\n");
+        }
+
+        return code
+            .append("        } catch (final java.lang.Exception exception) {\n")
+            .append("            ").append(fallback).append('\n')
+            .append("        }\n    }\n")
+            .toString();
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Return the public, non-static, parameterless getter method for a given property.
+     *
+     * @param type The type declaring the property
+     * @param property The name of the property
+     * @return The getter method, or {@code null} if there is none
+     */
+    private ExecutableElement findGetter(DeclaredType type, String property) {
+        if (property.isEmpty()) {
+            return null;
+        }
+
+        final String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        final List<ExecutableElement> candidates = ElementFilter.methodsIn(
+            processingEnv.getElementUtils().getAllMembers((TypeElement) type.asElement())
+        );
+
+        for (String prefix : GETTER_PREFIXES) {
+            final String name = prefix.isEmpty() ? property : prefix + suffix;
+            for (ExecutableElement candidate : candidates) {
+                if (candidate.getSimpleName().contentEquals(name)
+                    && candidate.getParameters().isEmpty()
+                    && candidate.getModifiers().contains(Modifier.PUBLIC)
+                    && !candidate.getModifiers().contains(Modifier.STATIC)
+                    && TypeKind.VOID != candidate.getReturnType().getKind()) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the source code name of a type, fully qualified and without type annotations.
+     *   Type variables are replaced by their upper bounds at the top level, and by {@code ?} within
+     *   type arguments, since the only ones left after resolving a path are captured wildcards.
+     *
+     * @param type The type
+     * @return The name of the type as it can be written in source code
+     */
+    private String typeName(TypeMirror type) {
+        switch (type.getKind()) {
+            case DECLARED:
+                final DeclaredType declared = (DeclaredType) type;
+                final TypeMirror enclosing = declared.getEnclosingType();
+                final StringBuilder name = new StringBuilder();
+
+                // Inner classes of parameterized types are qualified by their enclosing type.
+                if (TypeKind.DECLARED == enclosing.getKind()
+                    && !((DeclaredType) enclosing).getTypeArguments().isEmpty()) {
+                    name.append(typeName(enclosing)).append('.')
+                        .append(declared.asElement().getSimpleName());
+                } else {
+                    name.append(((TypeElement) declared.asElement()).getQualifiedName());
+                }
+
+                final List<? extends TypeMirror> arguments = declared.getTypeArguments();
+                for (int i = 0; i < arguments.size(); i++) {
+                    final TypeMirror argument = arguments.get(i);
+                    name.append(0 == i ? "<" : ", ")
+                        .append(TypeKind.TYPEVAR == argument.getKind() ? "?" : typeName(argument));
+                }
+                return arguments.isEmpty() ? name.toString() : name.append('>').toString();
+            case ARRAY:
+                return typeName(((ArrayType) type).getComponentType()) + "[]";
+            case WILDCARD:
+                final WildcardType wildcard = (WildcardType) type;
+                if (null != wildcard.getExtendsBound()) {
+                    return "? extends " + typeName(wildcard.getExtendsBound());
+                }
+                if (null != wildcard.getSuperBound()) {
+                    return "? super " + typeName(wildcard.getSuperBound());
+                }
+                return "?";
+            case TYPEVAR:
+                return typeName(((TypeVariable) type).getUpperBound());
+            case INTERSECTION:
+                return typeName(((IntersectionType) type).getBounds().get(0));
+            default:
+                // Primitive types, which are named after their kinds
+                return type.getKind().name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Return the name of a type relative to its package, such as {@code Outer.Inner}.
+     *
+     * @param type The type
+     * @param packageName The name of the package of the type
+     * @return The name of the type relative to its package
+     */
+    private static String binaryName(TypeElement type, String packageName) {
+        final String qualifiedName = type.getQualifiedName().toString();
+        return packageName.isEmpty()
+            ? qualifiedName
+            : qualifiedName.substring(packageName.length() + 1);
+    }
+
+    /**
+     * Report a compilation error on a given element.
+     *
+     * @param element The element the error is about
+     * @param message The error message
+     */
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
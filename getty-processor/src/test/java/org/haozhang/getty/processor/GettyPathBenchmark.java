@@ -0,0 +1,67 @@
+package org.haozhang.getty.processor;
+
+import org.haozhang.getty.processor.Order.Address;
+import org.haozhang.getty.processor.Order.Customer;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Compares generated getter chains with the equivalent hand-written code. The scores of each
+//   generated/handWritten pair should be within each other's error margins.
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@State(Scope.Thread)
+public class GettyPathBenchmark {
+    private final OrderPaths paths = new Getty_OrderPaths();
+
+    // Non-final so that the JIT compiler cannot constant-fold the chains away
+    private Order order = new Order(new Customer(new Address("12345"), true), 3);
+    private Order orderWithoutAddress = new Order(new Customer(null, false), 0);
+
+    // Enable running benchmarks from the command-line.
+    public static void main(String... args) throws Exception {
+        Main.main(args);
+    }
+
+    @Benchmark
+    public String generated_value() {
+        return paths.zipOrDefault(order, "00000");
+    }
+
+    @Benchmark
+    public String handWritten_value() {
+        return handWritten(order, "00000");
+    }
+
+    @Benchmark
+    public String generated_null() {
+        return paths.zipOrDefault(orderWithoutAddress, "00000");
+    }
+
+    @Benchmark
+    public String handWritten_null() {
+        return handWritten(orderWithoutAddress, "00000");
+    }
+
+    // The code a careful developer would write by hand
+    private static String handWritten(Order order, String defaultZip) {
+        if (null == order) {
+            return defaultZip;
+        }
+        final Customer customer = order.getCustomer();
+        if (null == customer) {
+            return defaultZip;
+        }
+        final Address address = customer.getAddress();
+        if (null == address) {
+            return defaultZip;
+        }
+        final String zip = address.zip();
+        return null != zip ? zip : defaultZip;
+    }
+}
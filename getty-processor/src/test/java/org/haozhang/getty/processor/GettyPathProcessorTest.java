@@ -0,0 +1,60 @@
+package org.haozhang.getty.processor;
+
+import org.haozhang.getty.processor.Order.Address;
+import org.haozhang.getty.processor.Order.Box;
+import org.haozhang.getty.processor.Order.Customer;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GettyPathProcessorTest {
+    private static final String ZIP = "12345";
+    private static final String DEFAULT_ZIP = "00000";
+    private static final Integer TOTAL = 42;
+    private static final Integer DEFAULT_TOTAL = 0;
+
+    private static final Order ORDER = new Order(new Customer(new Address(ZIP), true), 3);
+    private static final Order ORDER_WITHOUT_ADDRESS = new Order(new Customer(null, false), 0);
+
+    private final OrderPaths paths = new Getty_OrderPaths();
+
+    @Test
+    public void get_whenPathExists_thenReturnValue() {
+        assertThat(paths.zip(ORDER), equalTo(ZIP));
+        assertThat(paths.zipOrDefault(ORDER, DEFAULT_ZIP), equalTo(ZIP));
+        assertThat(paths.zipNonNull(ORDER), equalTo(ZIP));
+        assertThat(paths.active(ORDER), equalTo(true));
+        assertThat(paths.itemCount(ORDER, -1), equalTo(3));
+    }
+
+    @Test
+    public void get_whenIntermediateValueIsNull_thenReturnNullOrDefault() {
+        assertThat(paths.zip(ORDER_WITHOUT_ADDRESS), nullValue());
+        assertThat(paths.zipOrDefault(ORDER_WITHOUT_ADDRESS, DEFAULT_ZIP), equalTo(DEFAULT_ZIP));
+        assertThat(paths.total(ORDER_WITHOUT_ADDRESS, DEFAULT_TOTAL), equalTo(DEFAULT_TOTAL));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void get_whenHeadIsNull_thenThrowNullPointerException() {
+        paths.zipOrDefault(null, DEFAULT_ZIP);
+    }
+
+    @Test
+    public void get_whenPropertyTypeIsWildcard_thenReturnValue() {
+        final Order order = new Order(null, 0, new Box<>(TOTAL));
+
+        assertThat(paths.totalBox(order).getValue(), equalTo(TOTAL));
+        assertThat(paths.total(order, DEFAULT_TOTAL), equalTo(TOTAL));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getNonNull_whenIntermediateValueIsNull_thenThrowNullPointerException() {
+        paths.zipNonNull(ORDER_WITHOUT_ADDRESS);
+    }
+
+    @Test
+    public void get_whenGetterThrowsException_thenReturnDefault() {
+        assertThat(paths.fail(ORDER, DEFAULT_ZIP), equalTo(DEFAULT_ZIP));
+    }
+}
@@ -0,0 +1,76 @@
+package org.haozhang.getty.processor;
+
+// A small bean graph for the generated getter chains
+public class Order {
+    private final Customer customer;
+    private final int itemCount;
+    private final Box<? extends Number> total;
+
+    public Order(Customer customer, int itemCount) {
+        this(customer, itemCount, null);
+    }
+
+    public Order(Customer customer, int itemCount, Box<? extends Number> total) {
+        this.customer = customer;
+        this.itemCount = itemCount;
+        this.total = total;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public Box<? extends Number> getTotal() {
+        return total;
+    }
+
+    public static class Customer {
+        private final Address address;
+        private final boolean active;
+
+        public Customer(Address address, boolean active) {
+            this.address = address;
+            this.active = active;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public String fail() {
+            throw new IllegalStateException();
+        }
+    }
+
+    public static class Address {
+        private final String zip;
+
+        public Address(String zip) {
+            this.zip = zip;
+        }
+
+        public String zip() {
+            return zip;
+        }
+    }
+
+    public static class Box<T> {
+        private final T value;
+
+        public Box(T value) {
+            this.value = value;
+        }
+
+        public T getValue() {
+            return value;
+        }
+    }
+}
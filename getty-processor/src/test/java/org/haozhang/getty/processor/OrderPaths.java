@@ -0,0 +1,27 @@
+package org.haozhang.getty.processor;
+
+public interface OrderPaths {
+    @GettyPath("customer.address.zip")
+    String zip(Order order);
+
+    @GettyPath("customer.address.zip")
+    String zipOrDefault(Order order, String defaultZip);
+
+    @GettyPath(value = "customer.address.zip", nonNull = true)
+    String zipNonNull(Order order);
+
+    @GettyPath("customer.active")
+    Boolean active(Order order);
+
+    @GettyPath("itemCount")
+    int itemCount(Order order, int defaultCount);
+
+    @GettyPath("customer.fail")
+    String fail(Order order, String defaultValue);
+
+    @GettyPath("total")
+    Order.Box<? extends Number> totalBox(Order order);
+
+    @GettyPath("total.value")
+    Number total(Order order, Number defaultTotal);
+}
@@ -0,0 +1,344 @@
+package org.haozhang.getty;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class decides whether Getty chains started with {@link Getty#adaptive(Object)} should be
+ *   cached or uncached, based on how the chains have behaved so far.
+ * <br/><br/>
+ *
+ * Decisions are made per head type. For one in every {@code samplePeriod} chains, the policy
+ *   records whether an equal head (by hash code) was already sampled in the current evaluation
+ *   window (its reuse ratio) and how long that bookkeeping lookup took. Only hash codes are kept,
+ *   so sampled heads are not held past the chains using them. Every {@code evaluationSamples}
+ *   samples, the decision for the head type is re-evaluated: chains are cached if the reuse ratio
+ *   reaches {@code minReuseRatio} and the mean lookup cost stays under {@code maxLookupNanos}, and
+ *   uncached otherwise. Heads with expensive {@code hashCode()} methods (such as large maps) are
+ *   therefore kept uncached even if they are reused.
+ * <br/><br/>
+ *
+ * Since chains are sampled at random, a head is only counted as reused if it is sampled twice
+ *   within a window. This suits heads which are reused many times (such as shared configuration
+ *   objects), but heads reused only a handful of times (the typical {@link Getty#getAndCache()}
+ *   pattern within a single request) read as not reused; use {@link Getty#cached(Object)} for
+ *   those. Likewise, the lookup cost is measured on the policy's own bookkeeping (the head's
+ *   {@code hashCode()} and a set insertion) rather than on the chain cache, so it includes neither
+ *   {@code equals()} calls nor contention on the chain cache.
+ * <br/><br/>
+ *
+ * Unsampled chains only pay for a {@link ClassValue} lookup and a random number. Use a separate
+ *   {@link AdaptiveCachePolicy} instance per call site (with {@link Getty#adaptive(Object,
+ *   AdaptiveCachePolicy)}) to make decisions per call site rather than per head type.
+ * <br/><br/>
+ *
+ * As with {@link Getty#cached(Object)}, the last use of an adaptive chain should call
+ *   {@link Getty#get()} so that it is removed from the cache if it was cached.
+ */
+public final class AdaptiveCachePolicy {
+    //==============================================================================================
+    // Static Variables
+    //==============================================================================================
+
+    /**
+     * The default number of chains per sample
+     */
+    public static final int DEFAULT_SAMPLE_PERIOD = 64;
+
+    /**
+     * The default number of samples between evaluations
+     */
+    public static final int DEFAULT_EVALUATION_SAMPLES = 256;
+
+    /**
+     * The default minimum reuse ratio for caching
+     */
+    public static final double DEFAULT_MIN_REUSE_RATIO = 0.5;
+
+    /**
+     * The default maximum mean lookup cost for caching, in nanoseconds
+     */
+    public static final long DEFAULT_MAX_LOOKUP_NANOS = 1_000;
+
+    /**
+     * The policy used by {@link Getty#adaptive(Object)}
+     */
+    private static final AdaptiveCachePolicy DEFAULT = new AdaptiveCachePolicy(
+        DEFAULT_SAMPLE_PERIOD,
+        DEFAULT_EVALUATION_SAMPLES,
+        DEFAULT_MIN_REUSE_RATIO,
+        DEFAULT_MAX_LOOKUP_NANOS
+    );
+
+    //==============================================================================================
+    // Instance-related
+    //==============================================================================================
+
+    private final int samplePeriod;
+    private final int evaluationSamples;
+    private final double minReuseRatio;
+    private final long maxLookupNanos;
+
+    /**
+     * The statistics kept for each head type
+     */
+    private final ClassValue<Statistics> statistics = new ClassValue<Statistics>() {
+        @Override
+        protected Statistics computeValue(Class<?> type) {
+            final Statistics value =
+                new Statistics(evaluationSamples, minReuseRatio, maxLookupNanos);
+            registry.put(type, value);
+            return value;
+        }
+    };
+
+    /**
+     * The statistics kept for each head type, for inspection (since {@link ClassValue}s cannot be
+     *   enumerated)
+     * <br/><br/>
+     *
+     * Head types are weakly referenced (and {@link Statistics} do not reference them), so that
+     *   the policy does not keep the classes, or their class loaders, from being unloaded.
+     */
+    private final Map<Class<?>, Statistics> registry =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Construct an instance of {@link AdaptiveCachePolicy}.
+     *
+     * @param samplePeriod The number of chains per sample; must be positive
+     * @param evaluationSamples The number of samples between evaluations; must be positive
+     * @param minReuseRatio The minimum reuse ratio (between 0 and 1) for caching
+     * @param maxLookupNanos The maximum mean lookup cost for caching, in nanoseconds
+     */
+    public AdaptiveCachePolicy(
+        int samplePeriod,
+        int evaluationSamples,
+        double minReuseRatio,
+        long maxLookupNanos
+    ) {
+        if (samplePeriod <= 0 || evaluationSamples <= 0) {
+            throw new IllegalArgumentException("The sample counts must be positive.");
+        }
+
+        this.samplePeriod = samplePeriod;
+        this.evaluationSamples = evaluationSamples;
+        this.minReuseRatio = minReuseRatio;
+        this.maxLookupNanos = maxLookupNanos;
+    }
+
+    //==============================================================================================
+    // Public Methods
+    //==============================================================================================
+
+    /**
+     * Return whether a Getty chain starting with a given head should be cached, sampling the head
+     *   if its turn has come.
+     *
+     * @param head The head of the Getty chain; must not be null
+     * @return {@code true} if the chain should be cached
+     */
+    public boolean shouldCache(Object head) {
+        final Statistics value = statistics.get(head.getClass());
+        if (1 == samplePeriod || 0 == ThreadLocalRandom.current().nextInt(samplePeriod)) {
+            value.sample(head);
+        }
+        return value.cached;
+    }
+
+    /**
+     * Return a snapshot of the current decision for every head type seen so far.
+     *
+     * @return The current decisions by head type
+     */
+    public Map<Class<?>, Decision> getDecisions() {
+        final Map<Class<?>, Decision> decisions = new HashMap<>();
+        synchronized (registry) {
+            registry.forEach((type, value) -> decisions.put(type, value.getDecision(type)));
+        }
+        return Collections.unmodifiableMap(decisions);
+    }
+
+    /**
+     * Return the policy used by {@link Getty#adaptive(Object)}.
+     *
+     * @return The default {@link AdaptiveCachePolicy}
+     */
+    public static AdaptiveCachePolicy getDefault() {
+        return DEFAULT;
+    }
+
+    //==============================================================================================
+    // Inner Classes
+    //==============================================================================================
+
+    /**
+     * This class represents the outcome of the latest evaluation for a head type.
+     */
+    public static final class Decision {
+        private final Class<?> headType;
+        private final boolean cached;
+        private final double reuseRatio;
+        private final long meanLookupNanos;
+        private final long evaluations;
+
+        private Decision(
+            Class<?> headType,
+            boolean cached,
+            double reuseRatio,
+            long meanLookupNanos,
+            long evaluations
+        ) {
+            this.headType = headType;
+            this.cached = cached;
+            this.reuseRatio = reuseRatio;
+            this.meanLookupNanos = meanLookupNanos;
+            this.evaluations = evaluations;
+        }
+
+        public Class<?> getHeadType() {
+            return headType;
+        }
+
+        /**
+         * @return Whether chains starting with this head type are currently cached
+         */
+        public boolean isCached() {
+            return cached;
+        }
+
+        /**
+         * @return The ratio of sampled heads already seen in the last evaluation window
+         */
+        public double getReuseRatio() {
+            return reuseRatio;
+        }
+
+        /**
+         * @return The mean cost of a sampled bookkeeping lookup in the last evaluation window
+         */
+        public long getMeanLookupNanos() {
+            return meanLookupNanos;
+        }
+
+        /**
+         * @return The number of evaluations made so far
+         */
+        public long getEvaluations() {
+            return evaluations;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "Decision{headType=%s, cached=%s, reuseRatio=%.3f, meanLookupNanos=%d, "
+                    + "evaluations=%d}",
+                headType.getName(), cached, reuseRatio, meanLookupNanos, evaluations
+            );
+        }
+    }
+
+    /**
+     * This class holds the sampled counters for a single head type.
+     * <br/><br/>
+     *
+     * It references neither its head type nor its policy, so that neither is kept reachable
+     *   through the {@link ClassValue} or the registry holding it.
+     */
+    private static final class Statistics {
+        private final int evaluationSamples;
+        private final double minReuseRatio;
+        private final long maxLookupNanos;
+
+        /**
+         * The hash codes of the heads sampled in the current evaluation window
+         */
+        private final Set<Integer> seen = ConcurrentHashMap.newKeySet();
+
+        private final AtomicLong samples = new AtomicLong();
+        private final AtomicLong reuses = new AtomicLong();
+        private final AtomicLong lookupNanos = new AtomicLong();
+
+        /**
+         * The current decision, read on every chain
+         */
+        private volatile boolean cached;
+
+        /**
+         * The latest evaluation, for inspection; its head type is left out (see above) and filled
+         *   in by {@link #getDecision(Class)}
+         */
+        private volatile Decision decision = new Decision(null, false, 0, 0, 0);
+
+        private Statistics(int evaluationSamples, double minReuseRatio, long maxLookupNanos) {
+            this.evaluationSamples = evaluationSamples;
+            this.minReuseRatio = minReuseRatio;
+            this.maxLookupNanos = maxLookupNanos;
+        }
+
+        /**
+         * Return the latest evaluation as a {@link Decision} for a given head type.
+         *
+         * @param type The head type these statistics are kept for
+         * @return The latest {@link Decision}
+         */
+        private Decision getDecision(Class<?> type) {
+            final Decision latest = decision;
+            return new Decision(
+                type,
+                latest.cached,
+                latest.reuseRatio,
+                latest.meanLookupNanos,
+                latest.evaluations
+            );
+        }
+
+        /**
+         * Record whether a head was reused and how long it took to find out. This mirrors the
+         *   hashing done by a cached chain's lookup without keeping a reference to the head.
+         *
+         * @param head The sampled head
+         */
+        private void sample(Object head) {
+            final long start = System.nanoTime();
+            final boolean reused = !seen.add(head.hashCode());
+            lookupNanos.addAndGet(System.nanoTime() - start);
+
+            if (reused) {
+                reuses.incrementAndGet();
+            }
+            if (samples.incrementAndGet() == evaluationSamples) {
+                evaluate();
+            }
+        }
+
+        /**
+         * Re-evaluate the decision and start a new evaluation window.
+         */
+        private void evaluate() {
+            final long sampleCount = samples.get();
+            final double reuseRatio = (double) reuses.get() / sampleCount;
+            final long meanLookupNanos = lookupNanos.get() / sampleCount;
+
+            cached = reuseRatio >= minReuseRatio && meanLookupNanos <= maxLookupNanos;
+            decision = new Decision(
+                null,
+                cached,
+                reuseRatio,
+                meanLookupNanos,
+                decision.evaluations + 1
+            );
+
+            seen.clear();
+            reuses.set(0);
+            lookupNanos.set(0);
+            samples.set(0);
+        }
+    }
+}
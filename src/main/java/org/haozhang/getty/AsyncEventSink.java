@@ -0,0 +1,263 @@
+package org.haozhang.getty;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class hands the events of the Getty library to another {@link GettyEventSink} on a single
+ *   background worker thread, so that slow sinks (such as logging with caller locations) stay off
+ *   of the request path.
+ * <br/><br/>
+ *
+ * Events are written to a bounded, lock-free ring buffer of preallocated slots. Producers claim
+ *   slots with a single compare-and-set and never block: when the buffer is full (or this sink
+ *   has been closed), the event is dropped and counted instead. Closing seals the claim counter
+ *   itself, so delivering an event writes no shared state besides its slot.
+ * <br/><br/>
+ *
+ * The subjects and exceptions of events are read on the worker thread, so they must be safe to
+ *   access from another thread.
+ *
+ * @see Getty#setEventSink(GettyEventSink)
+ */
+public class AsyncEventSink implements GettyEventSink, AutoCloseable {
+    /**
+     * A suggested ring buffer capacity
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The name given to worker threads
+     */
+    private static final String WORKER_NAME = "getty-event-sink";
+
+    /**
+     * The bit set in {@link #head} once this sink has been closed
+     */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    //==============================================================================================
+    // Instance-related
+    //==============================================================================================
+
+    /**
+     * The sink receiving the events on the worker thread
+     */
+    private final GettyEventSink delegate;
+
+    /**
+     * The events of the ring buffer slots; the length of the slot arrays is a power of two
+     */
+    private final Event[] events;
+
+    /**
+     * The subjects of the ring buffer slots
+     */
+    private final Object[] subjects;
+
+    /**
+     * The exceptions of the ring buffer slots
+     */
+    private final Throwable[] exceptions;
+
+    /**
+     * The sequence number of each slot: a slot at position {@code p} can be written when its
+     *   sequence is {@code p} and read when it is {@code p + 1}. Writing the sequence publishes the
+     *   plain writes to the slot arrays made before it.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * The position of the next slot to be claimed by a producer, with the {@link #CLOSED} bit set
+     *   once no more slots can be claimed
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * The position of the next slot to be read; only accessed by the worker thread
+     */
+    private long tail;
+
+    /**
+     * The number of events dropped due to a full ring buffer or a closed sink
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Whether the worker thread is parked (or about to park) waiting for new events
+     */
+    private final AtomicBoolean idle = new AtomicBoolean();
+
+    /**
+     * The worker thread draining {@link #entries}
+     */
+    private final Thread worker;
+
+    /**
+     * Construct an instance of {@link AsyncEventSink} and start its worker thread.
+     *
+     * @param delegate The sink to hand the events to
+     * @param capacity The minimum number of pending events; rounded up to a power of two
+     */
+    public AsyncEventSink(GettyEventSink delegate, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+
+        this.delegate = Objects.requireNonNull(delegate, "The delegate sink cannot be null.");
+
+        // Round the capacity up to a power of two, so that slots can be indexed with a mask.
+        final int length = 1 == capacity ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        events = new Event[length];
+        subjects = new Object[length];
+        exceptions = new Throwable[length];
+        sequences = new AtomicLongArray(length);
+        for (int index = 0; index < length; index++) {
+            sequences.set(index, index);
+        }
+
+        worker = new Thread(this::drain, WORKER_NAME);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    //==============================================================================================
+    // Public Methods
+    //==============================================================================================
+
+    @Override
+    public void onEvent(Event event, Object subject, Throwable exception) {
+        if (!offer(event, subject, exception)) {
+            dropped.incrementAndGet();
+            return;
+        }
+
+        if (idle.get() && idle.compareAndSet(true, false)) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * @return The number of events dropped so far
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stop accepting new events, hand the pending ones to the delegate sink, and stop the worker
+     *   thread.
+     */
+    @Override
+    public void close() {
+        // Seal the claim counter; producers which claimed a slot before this still publish it.
+        long position = head.get();
+        while (0 == (position & CLOSED) && !head.compareAndSet(position, position | CLOSED)) {
+            position = head.get();
+        }
+        LockSupport.unpark(worker);
+
+        try {
+            worker.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Write an event to the ring buffer.
+     *
+     * @return Whether the event was written; {@code false} if the ring buffer is full or this sink
+     *   has been closed
+     */
+    private boolean offer(Event event, Object subject, Throwable exception) {
+        final int mask = events.length - 1;
+        long position = head.get();
+
+        while (true) {
+            if (0 != (position & CLOSED)) {
+                return false;
+            }
+
+            final int index = (int) (position & mask);
+            final long difference = sequences.get(index) - position;
+
+            if (0 == difference) {
+                if (head.compareAndSet(position, position + 1)) {
+                    events[index] = event;
+                    subjects[index] = subject;
+                    exceptions[index] = exception;
+                    sequences.set(index, position + 1); // Publishes the slot to the worker
+                    return true;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return false; // The slot still holds an unread entry from the previous lap.
+            } else {
+                position = head.get(); // Another producer claimed this slot first.
+            }
+        }
+    }
+
+    /**
+     * Hand the next event of the ring buffer to the delegate sink. This must only be called by the
+     *   worker thread.
+     *
+     * @return Whether an event was ready
+     */
+    private boolean poll() {
+        final int index = (int) (tail & (events.length - 1));
+        if (sequences.get(index) != tail + 1) {
+            return false;
+        }
+
+        final Event event = events[index];
+        final Object subject = subjects[index];
+        final Throwable exception = exceptions[index];
+        subjects[index] = null;
+        exceptions[index] = null;
+        sequences.set(index, tail + events.length); // Frees the slot for the next lap
+        tail++;
+
+        try {
+            delegate.onEvent(event, subject, exception);
+        } catch (Throwable throwable) {
+            // Sinks must not throw; keep draining the remaining events regardless.
+        }
+        return true;
+    }
+
+    /**
+     * Hand pending events to the delegate sink until this {@link AsyncEventSink} is closed and
+     *   every claimed slot has been read.
+     */
+    private void drain() {
+        while (true) {
+            if (poll()) {
+                continue;
+            }
+
+            final long position = head.get();
+            if (0 != (position & CLOSED)) {
+                if ((position & ~CLOSED) == tail) {
+                    return;
+                }
+                Thread.yield(); // A producer which claimed a slot before closing has yet to write.
+            } else {
+                // Re-check after announcing that we are idle to avoid a lost wake-up.
+                idle.set(true);
+                if (head.get() == tail) {
+                    LockSupport.park(this);
+                }
+                idle.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.haozhang.getty;
+
+/**
+ * This class holds the state shared by all of the {@link Getty} instances of an uncached chain
+ *   which needs more than the object held by each link: a deadline, the recording of the chain's
+ *   evaluation while it is being profiled, and its trace if it was sampled by {@link GettyTracer}.
+ * <br/><br/>
+ *
+ * Plain chains carry no context at all, so that they stay free of allocations and extra checks
+ *   beyond a {@code null} test.
+ */
+final class ChainContext {
+    /**
+     * Whether the chain has a deadline
+     */
+    private final boolean hasDeadline;
+
+    /**
+     * The {@link System#nanoTime()} value after which no more getters are called
+     */
+    private final long deadline;
+
+    /**
+     * The recording of the chain's evaluation; {@code null} if it is not recorded
+     */
+    private final EventRecorder.ChainRecording recording;
+
+    /**
+     * The trace of the chain; {@code null} if it was not sampled
+     */
+    private final GettyTracer.Recorder trace;
+
+    /**
+     * Whether the terminal call of the chain has been made
+     */
+    private boolean finished;
+
+    private ChainContext(
+        boolean hasDeadline,
+        long deadline,
+        EventRecorder.ChainRecording recording,
+        GettyTracer.Recorder trace
+    ) {
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
+        this.recording = recording;
+        this.trace = trace;
+    }
+
+    //==============================================================================================
+    // Factory Methods
+    //==============================================================================================
+
+    /**
+     * Return the context for a new uncached chain without a deadline.
+     *
+     * @param head The head of the chain
+     * @return A new {@link ChainContext}, or {@code null} if the chain needs none
+     */
+    static ChainContext forChain(Object head) {
+        final GettyTracer.Recorder trace = GettyTracer.getDefault().sample(head);
+        final EventRecorder.ChainRecording recording = EventRecorder.INSTANCE.beginChain(head);
+        return null != recording || null != trace
+            ? new ChainContext(false, 0, recording, trace)
+            : null;
+    }
+
+    /**
+     * Return the context for a new uncached chain with a deadline.
+     *
+     * @param head The head of the chain
+     * @param deadline The {@link System#nanoTime()} value after which no more getters are called
+     * @return A new {@link ChainContext}
+     */
+    static ChainContext withDeadline(Object head, long deadline) {
+        return new ChainContext(
+            true, deadline,
+            EventRecorder.INSTANCE.beginChain(head), GettyTracer.getDefault().sample(head)
+        );
+    }
+
+    //==============================================================================================
+    // Package-private Methods
+    //==============================================================================================
+
+    /**
+     * @return Whether the deadline of the chain has passed
+     */
+    boolean isExpired() {
+        return hasDeadline && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * Record the start of a link, and throw the shared {@link DeadlineExceededException} if the
+     *   deadline of the chain has passed.
+     *
+     * @param input The object the link's getter is about to be called with
+     */
+    void beforeLink(Object input) {
+        if (null != recording) {
+            recording.link();
+        }
+        if (null != trace) {
+            trace.beforeLink(input);
+        }
+        if (isExpired()) {
+            throw DeadlineExceededException.INSTANCE;
+        }
+    }
+
+    /**
+     * Record the value returned by a link's getter.
+     *
+     * @param value The value
+     */
+    void afterLink(Object value) {
+        if (null != trace) {
+            trace.afterLink(value);
+        }
+    }
+
+    /**
+     * Record the exception thrown by a link's getter, or the deadline being exceeded.
+     *
+     * @param exception The exception
+     */
+    void linkFailed(Exception exception) {
+        if (null != trace) {
+            trace.linkFailed(exception);
+        }
+    }
+
+    /**
+     * Record the end of the chain. Only the first terminal call of a chain is recorded.
+     */
+    void finish() {
+        if (finished) {
+            return;
+        }
+
+        finished = true;
+        if (null != recording) {
+            recording.finish();
+        }
+        if (null != trace) {
+            trace.finish();
+        }
+    }
+}
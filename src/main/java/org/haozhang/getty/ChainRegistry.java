@@ -0,0 +1,340 @@
+package org.haozhang.getty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * This class holds the Getty chains declared by an application so that they can be warmed up at
+ *   startup, before traffic arrives.
+ * <br/><br/>
+ *
+ * The first call of a chain pays for lambda linkage, class loading of the getters and exception
+ *   handlers, and interpreted execution. {@link #warmUp(int)} moves these costs to startup by
+ *   calling every registered chain on its sample heads a given number of times. Sample heads should
+ *   cover the exception and {@code null} branches of a chain (e.g. heads with missing fields) as
+ *   well as the common case, so that those branches are linked and compiled too:
+ * <pre>{@code
+ *   ChainRegistry.getDefault().register(
+ *       "customerZip",
+ *       (Order order) -> Getty.of(order).get(Order::getCustomer).get(Customer::getZip).get(),
+ *       Arrays.asList(sampleOrder, new Order())
+ *   );
+ *
+ *   ChainRegistry.getDefault().warmUp(10_000).forEach(report -> LOGGER.info("{}", report));
+ * }</pre>
+ *
+ * Before the registered chains, the warm-up also exercises every link method of {@link Getty} with
+ *   succeeding, {@code null}-returning and failing getters and the built-in exception handlers;
+ *   this is reported as {@link #LIBRARY_CHAIN}. The warm-up runs within a {@link GettyScope}, so
+ *   cached chains created by it never reach the global cache.
+ */
+public final class ChainRegistry {
+    /**
+     * The name of the report covering the warm-up of the Getty library itself
+     */
+    public static final String LIBRARY_CHAIN = "getty";
+
+    /**
+     * The registered chains, in registration order
+     */
+    private final List<Entry<?>> entries = new CopyOnWriteArrayList<>();
+
+    /**
+     * The names of the registered chains
+     */
+    private final Map<String, Entry<?>> names = new ConcurrentHashMap<>();
+
+    //==============================================================================================
+    // Public Methods
+    //==============================================================================================
+
+    /**
+     * Register a chain to be warmed up.
+     *
+     * @param name The unique name of the chain, used in its {@link Report}
+     * @param chain The chain, as a function from the head to the result of the chain
+     * @param sampleHeads The heads to call the chain with during warm-up
+     * @param <T> The type of the heads
+     * @return This {@link ChainRegistry}
+     * @throws IllegalArgumentException If a chain with the same name is already registered, or no
+     *   sample heads are given
+     */
+    public <T> ChainRegistry register(
+        String name,
+        Function<? super T, ?> chain,
+        Collection<? extends T> sampleHeads
+    ) {
+        Objects.requireNonNull(name, "The name cannot be null.");
+        Objects.requireNonNull(chain, "The chain cannot be null.");
+        if (sampleHeads.isEmpty()) {
+            throw new IllegalArgumentException(
+                "Chain " + name + " needs at least one sample head."
+            );
+        }
+
+        final Entry<T> entry = new Entry<>(name, chain, new ArrayList<>(sampleHeads));
+        if (LIBRARY_CHAIN.equals(name) || null != names.putIfAbsent(name, entry)) {
+            throw new IllegalArgumentException("A chain named " + name + " is already registered.");
+        }
+        entries.add(entry);
+        return this;
+    }
+
+    /**
+     * Register a chain to be warmed up.
+     *
+     * @param name The unique name of the chain, used in its {@link Report}
+     * @param chain The chain, as a function from the head to the result of the chain
+     * @param sampleHeads The heads to call the chain with during warm-up
+     * @param <T> The type of the heads
+     * @return This {@link ChainRegistry}
+     *
+     * @see #register(String, Function, Collection)
+     */
+    @SafeVarargs
+    public final <T> ChainRegistry register(
+        String name,
+        Function<? super T, ?> chain,
+        T... sampleHeads
+    ) {
+        return register(name, chain, Arrays.asList(sampleHeads));
+    }
+
+    /**
+     * @return The names of the registered chains, in registration order
+     */
+    public List<String> getNames() {
+        final List<String> result = new ArrayList<>(entries.size());
+        for (Entry<?> entry : entries) {
+            result.add(entry.name);
+        }
+        return result;
+    }
+
+    /**
+     * Call the Getty library and then every registered chain with each of their sample heads a
+     *   given number of times. Exceptions thrown by chains are counted as failures in their reports
+     *   rather than aborting the warm-up.
+     *
+     * @param iterations The number of times to call each chain with each sample head
+     * @return One {@link Report} for the library followed by one per registered chain, in
+     *   registration order
+     */
+    public List<Report> warmUp(int iterations) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("The number of iterations must be positive.");
+        }
+
+        final List<Report> reports = new ArrayList<>(entries.size() + 1);
+        try (GettyScope ignored = GettyScope.open()) {
+            reports.add(LIBRARY_ENTRY.warmUp(iterations));
+            for (Entry<?> entry : entries) {
+                reports.add(entry.warmUp(iterations));
+            }
+        }
+
+        final List<Report> result = Collections.unmodifiableList(reports);
+        Getty.getEventSink().onEvent(GettyEventSink.Event.CHAINS_WARMED_UP, result, null);
+        return result;
+    }
+
+    //==============================================================================================
+    // Factory Methods
+    //==============================================================================================
+
+    /**
+     * @return The {@link ChainRegistry} shared by the whole application
+     */
+    public static ChainRegistry getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    //==============================================================================================
+    // Library Warm-up
+    //==============================================================================================
+
+    /**
+     * The synthetic head used to warm up the library; index 0 holds a value, index 1 holds
+     *   {@code null} and index 2 is out of bounds, so that getters can succeed, return {@code null}
+     *   or fail on demand
+     */
+    private static final Object[] LIBRARY_HEAD = {"value", null};
+
+    private static final String DEFAULT_VALUE = "default";
+
+    private static final Entry<Object[]> LIBRARY_ENTRY = new Entry<>(
+        LIBRARY_CHAIN,
+        ChainRegistry::exerciseLibrary,
+        Arrays.asList(LIBRARY_HEAD, LIBRARY_HEAD.clone())
+    );
+
+    /**
+     * Run every kind of Getty link on a given head with getters which succeed, return {@code null}
+     *   and throw, through both uncached and cached chains.
+     *
+     * @param head The head to start the chains with
+     * @return The number of values obtained, to keep the calls from being optimized away
+     */
+    private static int exerciseLibrary(Object[] head) {
+        int count = 0;
+        final Getter<Object[], String> value = array -> (String) array[0];
+        final Getter<Object[], String> nullValue = array -> (String) array[1];
+        final Getter<Object[], String> failure = array -> (String) array[2];
+        final Supplier<String> supplier = () -> DEFAULT_VALUE;
+        final Function<Object[], String> function = array -> DEFAULT_VALUE;
+        final ExceptionHandlerConsumer<Object[]> ignore = (array, exception) -> { };
+        final ExceptionHandlerFunction<Object[], String> fallback =
+            ExceptionHandlerFunction.fromSupplier(supplier);
+
+        for (Getty<Object[]> getty : Arrays.asList(Getty.uncached(head), Getty.cached(head))) {
+            for (Getter<Object[], String> getter : Arrays.asList(value, nullValue, failure)) {
+                count += count(getty.get(getter).get(String::length).getAndCache());
+                count += count(getty.get(getter, ignore).getAndCache());
+                count += count(getty.get(getter, fallback).getAndCache());
+                count += count(getty.getOrDefault(getter, DEFAULT_VALUE).getAndCache());
+                count += count(getty.getOrDefault(getter, supplier).getAndCache());
+                count += count(getty.getOrDefault(getter, function).getAndCache());
+                count += count(getty.getOrDefault(getter, DEFAULT_VALUE, ignore).getAndCache());
+                count += count(getty.getOrDefault(getter, supplier, ignore).getAndCache());
+                count += count(getty.getOrDefault(getter, function, ignore).getAndCache());
+                count += count(getty.getOrDefault(getter, DEFAULT_VALUE, fallback).getAndCache());
+                count += count(getty.getOrDefault(getter, supplier, fallback).getAndCache());
+                count += count(getty.getOrDefault(getter, function, fallback).getAndCache());
+                count += count(getty.getNonNull(getter, ignore).getAndCache());
+                count += count(getty.getNonNull(getter, fallback).getAndCache());
+                try {
+                    count += count(getty.getNonNull(getter).getAndCache());
+                } catch (NullPointerException exception) {
+                    count--;
+                }
+            }
+            count += count(getty.get());
+        }
+
+        count += count(Getty.get(() -> head[1]));
+        count += count(Getty.getOrDefault(() -> head[2], supplier));
+        return count;
+    }
+
+    private static int count(Object value) {
+        return null != value ? 1 : 0;
+    }
+
+    //==============================================================================================
+    // Inner Classes
+    //==============================================================================================
+
+    /**
+     * This class holds a registered chain with its sample heads.
+     *
+     * @param <T> The type of the heads
+     */
+    private static final class Entry<T> {
+        private final String name;
+        private final Function<? super T, ?> chain;
+        private final List<T> sampleHeads;
+
+        private Entry(String name, Function<? super T, ?> chain, List<T> sampleHeads) {
+            this.name = name;
+            this.chain = chain;
+            this.sampleHeads = sampleHeads;
+        }
+
+        private Report warmUp(int iterations) {
+            long failures = 0;
+            long firstCallNanos = -1;
+            final long start = System.nanoTime();
+
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                for (T head : sampleHeads) {
+                    final long callStart = System.nanoTime();
+                    try {
+                        chain.apply(head);
+                    } catch (Exception exception) {
+                        failures++;
+                    }
+                    if (firstCallNanos < 0) {
+                        firstCallNanos = System.nanoTime() - callStart;
+                    }
+                }
+            }
+
+            return new Report(
+                name, (long) iterations * sampleHeads.size(), failures, firstCallNanos,
+                System.nanoTime() - start
+            );
+        }
+    }
+
+    /**
+     * This class holds the outcome of warming up a single chain.
+     */
+    public static final class Report {
+        private final String name;
+        private final long invocations;
+        private final long failures;
+        private final long firstCallNanos;
+        private final long totalNanos;
+
+        Report(String name, long invocations, long failures, long firstCallNanos, long totalNanos) {
+            this.name = name;
+            this.invocations = invocations;
+            this.failures = failures;
+            this.firstCallNanos = firstCallNanos;
+            this.totalNanos = totalNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The number of times the chain was called
+         */
+        public long getInvocations() {
+            return invocations;
+        }
+
+        /**
+         * @return The number of calls which threw an exception
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return The duration of the first (cold) call of the chain, in nanoseconds
+         */
+        public long getFirstCallNanos() {
+            return firstCallNanos;
+        }
+
+        /**
+         * @return The duration of the whole warm-up of the chain, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%s{invocations=%d, failures=%d, firstCall=%.3fms, total=%.3fms}",
+                name, invocations, failures, firstCallNanos / 1e6, totalNanos / 1e6
+            );
+        }
+    }
+
+    private static final class DefaultHolder {
+        private static final ChainRegistry INSTANCE = new ChainRegistry();
+    }
+}
@@ -0,0 +1,217 @@
+package org.haozhang.getty;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class wraps a {@link Getter} with a circuit breaker which stops calling it once it has
+ *   failed persistently.
+ * <br/><br/>
+ *
+ * After {@code failureThreshold} exceptions within {@code window}, the breaker opens and every call
+ *   throws the shared {@link CircuitOpenException} instead of calling the getter. The surrounding
+ *   {@link Getty} link then falls through to its exception handler or default value as usual,
+ *   without paying for the getter call or for filling in a new stack trace.
+ * <br/><br/>
+ *
+ * Once {@code coolDown} has elapsed, the breaker half-opens and lets a single trial call through.
+ *   A successful trial closes the breaker again; a failed one re-opens it for another cool-down.
+ * <br/><br/>
+ *
+ * All state is kept in atomic counters, so a single instance can be shared across threads and
+ *   Getty chains. See below for an example usage:
+ * <pre>{@code
+ *   Getter<A, B> getB = ((Getter<A, B>) A::getB).withCircuitBreaker(5, 10, 30, TimeUnit.SECONDS);
+ *
+ *   B b = Getty.of(a).getOrDefault(getB, B.EMPTY).get();
+ * }</pre>
+ *
+ * @param <T> The type of the object the getter method will be called with
+ * @param <R> The type of the object returned by the getter method
+ *
+ * @see Getter#withCircuitBreaker(int, long, long, TimeUnit)
+ */
+public class CircuitBreakerGetter<T, R> implements Getter<T, R> {
+    /**
+     * The getter guarded by this circuit breaker
+     */
+    private final Getter<T, R> getter;
+
+    /**
+     * The number of failures within {@link #windowNanos} that opens the circuit breaker
+     */
+    private final int failureThreshold;
+
+    /**
+     * The length of the window in which failures are counted, in nanoseconds
+     */
+    private final long windowNanos;
+
+    /**
+     * The amount of time the circuit breaker stays open before half-opening, in nanoseconds
+     */
+    private final long coolDownNanos;
+
+    /**
+     * The current state of the circuit breaker
+     */
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+    /**
+     * The number of failures counted in the current window
+     */
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * The {@link System#nanoTime()} at which the current window started
+     */
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    /**
+     * The {@link System#nanoTime()} at which the circuit breaker was last opened
+     */
+    private volatile long openedAt;
+
+    /**
+     * Construct an instance of {@link CircuitBreakerGetter} guarding a given getter.
+     *
+     * @param getter The getter to guard
+     * @param failureThreshold The number of failures within {@code window} that opens the circuit
+     *   breaker; must be positive
+     * @param window The length of the window in which failures are counted
+     * @param coolDown The amount of time the circuit breaker stays open before half-opening
+     * @param unit The time unit of {@code window} and {@code coolDown}
+     */
+    public CircuitBreakerGetter(
+        Getter<T, R> getter,
+        int failureThreshold,
+        long window,
+        long coolDown,
+        TimeUnit unit
+    ) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException(
+                "The failure threshold must be positive: " + failureThreshold
+            );
+        }
+
+        this.getter = Objects.requireNonNull(getter, "The getter cannot be null.");
+        this.failureThreshold = failureThreshold;
+        this.windowNanos = unit.toNanos(window);
+        this.coolDownNanos = unit.toNanos(coolDown);
+    }
+
+    @Override
+    public R apply(T object) {
+        switch (state.get()) {
+            case CLOSED:
+                return applyClosed(object);
+            case OPEN:
+                if (System.nanoTime() - openedAt >= coolDownNanos
+                    && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                    return applyTrial(object);
+                }
+                throw CircuitOpenException.INSTANCE;
+            default:
+                // Only the thread that half-opened the circuit breaker gets to make the trial call.
+                throw CircuitOpenException.INSTANCE;
+        }
+    }
+
+    /**
+     * Return the current state of this circuit breaker.
+     *
+     * @return The current state of this circuit breaker
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Call the getter while the circuit breaker is closed, counting its failures. Like the links of
+     *   a {@link Getty} chain, this counts every {@link Exception}, including checked exceptions
+     *   thrown sneakily.
+     *
+     * @param object The object to call the getter with
+     * @return The value returned by the getter
+     */
+    private R applyClosed(T object) {
+        try {
+            return getter.apply(object);
+        } catch (Exception exception) {
+            recordFailure();
+            throw exception;
+        }
+    }
+
+    /**
+     * Make the single trial call while the circuit breaker is half-open. Anything thrown by the
+     *   getter, including {@link Error}s, re-opens the circuit breaker so that it cannot be left
+     *   half-open.
+     *
+     * @param object The object to call the getter with
+     * @return The value returned by the getter
+     */
+    private R applyTrial(T object) {
+        try {
+            final R value = getter.apply(object);
+            failures.set(0);
+            windowStart.set(System.nanoTime());
+            state.set(State.CLOSED);
+            return value;
+        } catch (Throwable throwable) {
+            openedAt = System.nanoTime();
+            state.set(State.OPEN);
+            throw throwable;
+        }
+    }
+
+    /**
+     * Count a failure in the current window and open the circuit breaker if the threshold has been
+     *   reached.
+     */
+    private void recordFailure() {
+        final long now = System.nanoTime();
+        final long start = windowStart.get();
+
+        if (now - start > windowNanos && windowStart.compareAndSet(start, now)) {
+            failures.set(0);
+        }
+
+        if (failures.incrementAndGet() >= failureThreshold) {
+            openedAt = now;
+            state.compareAndSet(State.CLOSED, State.OPEN);
+        }
+    }
+
+    //==============================================================================================
+    // Inner Classes
+    //==============================================================================================
+
+    /**
+     * This enum represents the states of a {@link CircuitBreakerGetter}.
+     */
+    public enum State {
+        /**
+         * The getter is called and its failures are counted.
+         */
+        CLOSED,
+
+        /**
+         * The getter is skipped until the cool-down has elapsed.
+         */
+        OPEN,
+
+        /**
+         * A single trial call is in flight; other calls skip the getter.
+         */
+        HALF_OPEN
+    }
+}
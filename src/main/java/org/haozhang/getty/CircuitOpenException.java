@@ -0,0 +1,20 @@
+package org.haozhang.getty;
+
+/**
+ * This exception is passed to exception handlers in place of running a {@link Getter} whose
+ *   {@link CircuitBreakerGetter} is open.
+ * <br/><br/>
+ *
+ * A single instance is shared and it carries no stack trace, so skipping a getter costs no more
+ *   than a field read and a {@code throw}.
+ */
+public final class CircuitOpenException extends RuntimeException {
+    /**
+     * The shared {@link CircuitOpenException} instance
+     */
+    static final CircuitOpenException INSTANCE = new CircuitOpenException();
+
+    private CircuitOpenException() {
+        super("The circuit breaker is open; the getter was not called.", null, false, false);
+    }
+}
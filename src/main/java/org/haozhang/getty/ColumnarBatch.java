@@ -0,0 +1,177 @@
+package org.haozhang.getty;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the output of a {@link ColumnarProjection} as struct-of-arrays columns.
+ * <br/><br/>
+ *
+ * Each column is a single primitive or object array indexed by record, so that downstream loops
+ *   over a column read contiguous memory (and can be vectorized by the JIT compiler). Whether a
+ *   record's value was replaced by the column's default value is tracked in a separate null
+ *   bitmap per column, where bit {@code row % 64} of word {@code row / 64} is set for {@code null}
+ *   values.
+ * <br/><br/>
+ *
+ * The arrays returned by the accessors are the live backing arrays; only the first
+ *   {@link #size()} elements are meaningful.
+ */
+public final class ColumnarBatch {
+    // The columns of the projection which created this batch, also identifying that projection
+    final ColumnarProjection.Column[] columns;
+    private final int capacity;
+    private int size;
+
+    // Only the array matching each column's type is allocated; the others are null.
+    final int[][] ints;
+    final long[][] longs;
+    final double[][] doubles;
+    final Object[][] objects;
+    final long[][] nulls;
+
+    ColumnarBatch(ColumnarProjection.Column[] columns, int capacity) {
+        this.columns = columns;
+        this.capacity = capacity;
+
+        ints = new int[columns.length][];
+        longs = new long[columns.length][];
+        doubles = new double[columns.length][];
+        objects = new Object[columns.length][];
+        nulls = new long[columns.length][(capacity + 63) >>> 6];
+
+        for (int column = 0; column < columns.length; column++) {
+            switch (columns[column].type) {
+                case INT:
+                    ints[column] = new int[capacity];
+                    break;
+                case LONG:
+                    longs[column] = new long[capacity];
+                    break;
+                case DOUBLE:
+                    doubles[column] = new double[capacity];
+                    break;
+                default:
+                    objects[column] = new Object[capacity];
+            }
+        }
+    }
+
+    //==============================================================================================
+    // Public Methods
+    //==============================================================================================
+
+    /**
+     * @return The number of records held by this batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The maximum number of records this batch can hold
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Return the index of the column with a given name.
+     *
+     * @param name The name of the column
+     * @return The index of the column, or {@code -1} if there is no such column
+     */
+    public int columnIndex(String name) {
+        for (int column = 0; column < columns.length; column++) {
+            if (columns[column].name.equals(name)) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param column The index of a {@code int} column
+     * @return The values of the column
+     */
+    public int[] getInts(int column) {
+        return checkType(ints[column], column, "int");
+    }
+
+    /**
+     * @param column The index of a {@code long} column
+     * @return The values of the column
+     */
+    public long[] getLongs(int column) {
+        return checkType(longs[column], column, "long");
+    }
+
+    /**
+     * @param column The index of a {@code double} column
+     * @return The values of the column
+     */
+    public double[] getDoubles(int column) {
+        return checkType(doubles[column], column, "double");
+    }
+
+    /**
+     * @param column The index of an object column
+     * @return The values of the column
+     */
+    public Object[] getObjects(int column) {
+        return checkType(objects[column], column, "object");
+    }
+
+    /**
+     * Return the null bitmap of a given column.
+     *
+     * @param column The index of the column
+     * @return The null bitmap of the column
+     */
+    public long[] getNullBitmap(int column) {
+        return nulls[column];
+    }
+
+    /**
+     * Return whether the chain of a given column yielded {@code null} for a given record.
+     *
+     * @param column The index of the column
+     * @param row The index of the record
+     * @return {@code true} if the record holds the column's default value
+     */
+    public boolean isNull(int column, int row) {
+        return 0 != (nulls[column][row >>> 6] & (1L << row));
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Prepare this batch to be filled with a given number of records.
+     */
+    void reset(int size) {
+        this.size = size;
+        for (long[] bitmap : nulls) {
+            Arrays.fill(bitmap, 0);
+        }
+        for (Object[] column : objects) {
+            if (null != column) {
+                // Release references from earlier batches
+                Arrays.fill(column, size, capacity, null);
+            }
+        }
+    }
+
+    void setNull(int column, int row) {
+        nulls[column][row >>> 6] |= 1L << row;
+    }
+
+    private <A> A checkType(A array, int column, String type) {
+        if (null == array) {
+            throw new IllegalArgumentException(
+                "Column " + columns[column].name + " is not of type " + type + "."
+            );
+        }
+        return array;
+    }
+}
@@ -0,0 +1,344 @@
+package org.haozhang.getty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class extracts many fields from batches of heads into struct-of-arrays columns, for
+ *   analytics jobs that would otherwise run one Getty chain per field per record.
+ * <br/><br/>
+ *
+ * Each column is defined by a sequence of {@link Getter} steps and a default value. The steps of
+ *   all columns are merged into a prefix tree at build time: columns starting with the same
+ *   {@link Getter} instances share those links, which are evaluated only once per record. For
+ *   example, the two columns below call {@code getCustomer} once per order:
+ * <pre>{@code
+ *   Getter<Order, Customer> customer = Order::getCustomer;
+ *
+ *   ColumnarProjection<Order> projection = ColumnarProjection.<Order>builder()
+ *       .intColumn("age", -1, customer, (Getter<Customer, Integer>) Customer::getAge)
+ *       .objectColumn("name", "", customer, (Getter<Customer, String>) Customer::getName)
+ *       .build();
+ *
+ *   ColumnarBatch batch = projection.project(orders);
+ *   int[] ages = batch.getInts(0);
+ * }</pre>
+ *
+ * Every link follows the semantics of {@link Getty#getOrDefault(Getter, Object)} at the end of the
+ *   chain: a link that throws or returns {@code null} makes the rest of the chain {@code null}, and
+ *   a {@code null} result is stored as the column's default value with its bit set in the column's
+ *   null bitmap. Primitive columns also treat non-numeric results as {@code null}.
+ * <br/><br/>
+ *
+ * Instances are immutable and can be shared across threads; each call to
+ *   {@link #project(List, ColumnarBatch)} only uses its own scratch space.
+ *
+ * @param <T> The type of the heads
+ */
+public final class ColumnarProjection<T> {
+    /**
+     * The index of the parent node of each node, or {@code -1} for the head
+     */
+    private final int[] parents;
+
+    /**
+     * The getter applied to the parent value of each node
+     */
+    private final Getter<Object, Object>[] steps;
+
+    /**
+     * The definitions of the columns, in order
+     */
+    private final Column[] columns;
+
+    private ColumnarProjection(int[] parents, Getter<Object, Object>[] steps, Column[] columns) {
+        this.parents = parents;
+        this.steps = steps;
+        this.columns = columns;
+    }
+
+    //==============================================================================================
+    // Public Methods
+    //==============================================================================================
+
+    /**
+     * Return a new, empty {@link ColumnarBatch} able to hold a given number of records of this
+     *   projection.
+     *
+     * @param capacity The maximum number of records
+     * @return A new {@link ColumnarBatch}
+     */
+    public ColumnarBatch newBatch(int capacity) {
+        return new ColumnarBatch(columns, capacity);
+    }
+
+    /**
+     * Project a batch of heads into a new {@link ColumnarBatch}.
+     *
+     * @param heads The heads to project
+     * @return A {@link ColumnarBatch} holding one record per head
+     */
+    public ColumnarBatch project(List<? extends T> heads) {
+        final ColumnarBatch batch = newBatch(heads.size());
+        project(heads, batch);
+        return batch;
+    }
+
+    /**
+     * Project a batch of heads into an existing {@link ColumnarBatch}, replacing its contents.
+     *   Reusing a batch avoids allocating new column arrays for every batch of heads.
+     *
+     * @param heads The heads to project; {@link java.util.RandomAccess} lists are recommended
+     * @param batch A batch created by {@link #newBatch(int)} of this projection
+     * @throws IllegalArgumentException If {@code batch} was created by another projection or is
+     *   too small to hold {@code heads}
+     */
+    public void project(List<? extends T> heads, ColumnarBatch batch) {
+        if (batch.columns != columns) {
+            throw new IllegalArgumentException("The batch was created by another projection.");
+        }
+
+        final int size = heads.size();
+        if (size > batch.capacity()) {
+            throw new IllegalArgumentException(
+                "The batch holds " + batch.capacity() + " records, but " + size + " were given."
+            );
+        }
+
+        batch.reset(size);
+        final Object[] values = new Object[steps.length];
+
+        for (int row = 0; row < size; row++) {
+            evaluate(heads.get(row), values);
+            for (int column = 0; column < columns.length; column++) {
+                columns[column].store(batch, column, row, values[columns[column].node]);
+            }
+        }
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Evaluate every node of the prefix tree for a single head. Nodes are stored in the order in
+     *   which they were added, so every parent is evaluated before its children.
+     *
+     * @param head The head to evaluate the nodes with
+     * @param values The values of the nodes, by node index
+     */
+    private void evaluate(Object head, Object[] values) {
+        for (int node = 0; node < steps.length; node++) {
+            final Object parent = parents[node] < 0 ? head : values[parents[node]];
+            if (null == parent) {
+                values[node] = null;
+                continue;
+            }
+
+            try {
+                values[node] = steps[node].apply(parent);
+            } catch (Exception exception) {
+                values[node] = null;
+            }
+        }
+    }
+
+    //==============================================================================================
+    // Factory Methods
+    //==============================================================================================
+
+    /**
+     * Return a {@link Builder} to define the columns of a {@link ColumnarProjection}.
+     *
+     * @param <T> The type of the heads
+     * @return A new {@link Builder}
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    //==============================================================================================
+    // Inner Classes
+    //==============================================================================================
+
+    /**
+     * This enum represents the storage types of columns.
+     */
+    enum ColumnType {
+        INT, LONG, DOUBLE, OBJECT
+    }
+
+    /**
+     * This class holds the definition of a single column.
+     */
+    static final class Column {
+        final String name;
+        final ColumnType type;
+        final Object defaultValue;
+
+        /**
+         * The index of the prefix tree node holding the value of this column
+         */
+        final int node;
+
+        private Column(String name, ColumnType type, Object defaultValue, int node) {
+            this.name = name;
+            this.type = type;
+            this.defaultValue = defaultValue;
+            this.node = node;
+        }
+
+        /**
+         * Store the value of this column for a single record, falling back to the default value.
+         */
+        private void store(ColumnarBatch batch, int column, int row, Object value) {
+            final boolean isNull = ColumnType.OBJECT == type
+                ? null == value
+                : !(value instanceof Number);
+            if (isNull) {
+                batch.setNull(column, row);
+            }
+
+            final Object stored = isNull ? defaultValue : value;
+            switch (type) {
+                case INT:
+                    batch.ints[column][row] = ((Number) stored).intValue();
+                    break;
+                case LONG:
+                    batch.longs[column][row] = ((Number) stored).longValue();
+                    break;
+                case DOUBLE:
+                    batch.doubles[column][row] = ((Number) stored).doubleValue();
+                    break;
+                default:
+                    batch.objects[column][row] = stored;
+            }
+        }
+    }
+
+    /**
+     * This class collects column definitions and merges their shared prefixes.
+     *
+     * @param <T> The type of the heads
+     */
+    public static final class Builder<T> {
+        private final List<Integer> parents = new ArrayList<>();
+        private final List<Getter<Object, Object>> steps = new ArrayList<>();
+        private final List<Column> columns = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Add an {@code int} column.
+         *
+         * @param name The name of the column
+         * @param defaultValue The value stored when the chain yields {@code null}
+         * @param steps The getters making up the chain, starting from the head
+         * @return This {@link Builder}
+         */
+        public Builder<T> intColumn(String name, int defaultValue, Getter<?, ?>... steps) {
+            return column(name, ColumnType.INT, defaultValue, steps);
+        }
+
+        /**
+         * Add a {@code long} column.
+         *
+         * @param name The name of the column
+         * @param defaultValue The value stored when the chain yields {@code null}
+         * @param steps The getters making up the chain, starting from the head
+         * @return This {@link Builder}
+         */
+        public Builder<T> longColumn(String name, long defaultValue, Getter<?, ?>... steps) {
+            return column(name, ColumnType.LONG, defaultValue, steps);
+        }
+
+        /**
+         * Add a {@code double} column.
+         *
+         * @param name The name of the column
+         * @param defaultValue The value stored when the chain yields {@code null}
+         * @param steps The getters making up the chain, starting from the head
+         * @return This {@link Builder}
+         */
+        public Builder<T> doubleColumn(String name, double defaultValue, Getter<?, ?>... steps) {
+            return column(name, ColumnType.DOUBLE, defaultValue, steps);
+        }
+
+        /**
+         * Add an object column.
+         *
+         * @param name The name of the column
+         * @param defaultValue The value stored when the chain yields {@code null}
+         * @param steps The getters making up the chain, starting from the head
+         * @return This {@link Builder}
+         */
+        public Builder<T> objectColumn(String name, Object defaultValue, Getter<?, ?>... steps) {
+            return column(name, ColumnType.OBJECT, defaultValue, steps);
+        }
+
+        /**
+         * Return a {@link ColumnarProjection} with the columns added so far.
+         *
+         * @return A new {@link ColumnarProjection}
+         */
+        @SuppressWarnings("unchecked")
+        public ColumnarProjection<T> build() {
+            return new ColumnarProjection<>(
+                parents.stream().mapToInt(Integer::intValue).toArray(),
+                steps.toArray(new Getter[0]),
+                columns.toArray(new Column[0])
+            );
+        }
+
+        /**
+         * Add a column, reusing the existing nodes for the longest prefix of {@code chain} that was
+         *   already added by another column.
+         */
+        @SuppressWarnings("unchecked")
+        private Builder<T> column(
+            String name,
+            ColumnType type,
+            Object defaultValue,
+            Getter<?, ?>[] chain
+        ) {
+            Objects.requireNonNull(name, "The column name cannot be null.");
+            if (0 == chain.length) {
+                throw new IllegalArgumentException(
+                    "Column " + name + " needs at least one getter."
+                );
+            }
+
+            int node = -1;
+            for (Getter<?, ?> step : chain) {
+                Objects.requireNonNull(step, "The getters cannot be null.");
+                node = child(node, (Getter<Object, Object>) step);
+            }
+            columns.add(new Column(name, type, defaultValue, node));
+            return this;
+        }
+
+        /**
+         * Return the node applying a given getter to a given parent node, adding it if needed.
+         */
+        private int child(int parent, Getter<Object, Object> step) {
+            for (int node = 0; node < steps.size(); node++) {
+                if (parents.get(node) == parent && steps.get(node) == step) {
+                    return node;
+                }
+            }
+            parents.add(parent);
+            steps.add(step);
+            return steps.size() - 1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarProjection{columns=" + Arrays.toString(
+            Arrays.stream(columns).map(column -> column.name).toArray()
+        ) + ", nodes=" + steps.length + '}';
+    }
+}
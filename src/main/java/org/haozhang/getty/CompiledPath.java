@@ -0,0 +1,58 @@
+package org.haozhang.getty;
+
+/**
+ * This class represents a path expression that has been compiled into a fixed sequence of
+ *   {@link Getter} steps, one per path segment.
+ * <br/><br/>
+ *
+ * Evaluating it is a plain loop over the steps: a {@code null} value at any segment short-circuits
+ *   the rest of the path to {@code null}, just like a {@code null} value does on a Getty chain.
+ *   Exceptions thrown by a step are left to the exception handler of the {@link Getty} link that
+ *   the path is used in.
+ *
+ * @param <T> The type of the object the path is evaluated against
+ * @param <R> The type of the object at the end of the path
+ *
+ * @see MapPath
+ */
+final class CompiledPath<T, R> implements Getter<T, R> {
+    /**
+     * The source expression, for debugging
+     */
+    private final String expression;
+
+    /**
+     * The getters for each segment of the path, in order
+     */
+    private final Getter<Object, Object>[] steps;
+
+    /**
+     * Construct an instance of {@link CompiledPath}.
+     *
+     * @param expression The source expression
+     * @param steps The getters for each segment of the path, in order; must not be modified
+     *   afterwards
+     */
+    CompiledPath(String expression, Getter<Object, Object>[] steps) {
+        this.expression = expression;
+        this.steps = steps;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public R apply(T object) {
+        Object value = object;
+        for (Getter<Object, Object> step : steps) {
+            if (null == value) {
+                return null;
+            }
+            value = step.apply(value);
+        }
+        return (R) value;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,24 @@
+package org.haozhang.getty;
+
+/**
+ * This exception is passed to exception handlers in place of running a {@link Getter} on a chain
+ *   started with {@link Getty#withDeadline(Object, long, java.util.concurrent.TimeUnit)} whose
+ *   time budget has run out.
+ * <br/><br/>
+ *
+ * A single instance is shared and it carries no stack trace, so skipping a getter costs no more
+ *   than a clock read and a {@code throw}.
+ */
+public final class DeadlineExceededException extends RuntimeException {
+    /**
+     * The shared {@link DeadlineExceededException} instance
+     */
+    static final DeadlineExceededException INSTANCE = new DeadlineExceededException();
+
+    private DeadlineExceededException() {
+        super(
+            "The deadline of the Getty chain has passed; the getter was not called.",
+            null, false, false
+        );
+    }
+}
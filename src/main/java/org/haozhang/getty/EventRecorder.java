@@ -0,0 +1,112 @@
+package org.haozhang.getty;
+
+/**
+ * This interface receives the events Getty emits for profiling: chain evaluations, exception
+ *   handler invocations, default value fallbacks, and cache inserts and evictions.
+ * <br/><br/>
+ *
+ * On JVMs with JDK Flight Recorder, {@link #INSTANCE} records them as JFR events (see
+ *   {@code JfrEventRecorder}); elsewhere it ignores them. Implementations must make disabled
+ *   events as close to free as possible since they are called on every link of every chain.
+ */
+interface EventRecorder {
+    /**
+     * The system property which disables JFR events when set to {@code false}
+     */
+    String JFR_PROPERTY = EventRecorder.class.getPackage().getName() + ".jfr";
+
+    /**
+     * The name of the JFR-based implementation, which is only compiled on JDK 11 and later
+     */
+    String JFR_RECORDER = EventRecorder.class.getPackage().getName() + ".JfrEventRecorder";
+
+    /**
+     * The {@link EventRecorder} used by Getty
+     */
+    EventRecorder INSTANCE = Loader.load();
+
+    /**
+     * Return a {@link ChainRecording} to track the evaluation of a new uncached chain.
+     *
+     * @param head The head of the chain
+     * @return A {@link ChainRecording}, or {@code null} if chain evaluations are not recorded
+     */
+    default ChainRecording beginChain(Object head) {
+        return null;
+    }
+
+    /**
+     * Record the invocation of an exception handler.
+     *
+     * @param getter The getter which threw the exception
+     * @param exception The exception passed to the handler
+     */
+    default void handlerInvoked(Getter<?, ?> getter, Exception exception) {
+    }
+
+    /**
+     * Record the use of a default value in place of a {@code null} value.
+     *
+     * @param getter The getter which failed or returned {@code null}
+     */
+    default void defaultUsed(Getter<?, ?> getter) {
+    }
+
+    /**
+     * Record the creation of a cached {@link Getty} instance.
+     *
+     * @param head The head of its chain
+     */
+    default void cacheInserted(Object head) {
+    }
+
+    /**
+     * Record the removal of a chain from its cache.
+     *
+     * @param head The head of the chain
+     * @param instances The number of cached {@link Getty} instances in the chain
+     */
+    default void cacheEvicted(Object head, int instances) {
+    }
+
+    /**
+     * This interface tracks the evaluation of a single chain from its head to its terminal call.
+     */
+    interface ChainRecording {
+        /**
+         * Record the evaluation of a link.
+         */
+        void link();
+
+        /**
+         * Record the end of the chain.
+         */
+        void finish();
+    }
+
+    /**
+     * This class picks the {@link EventRecorder} implementation.
+     */
+    final class Loader {
+        private static final EventRecorder NONE = new EventRecorder() { };
+
+        private Loader() {
+        }
+
+        private static EventRecorder load() {
+            if (!Boolean.parseBoolean(System.getProperty(JFR_PROPERTY, "true"))) {
+                return NONE;
+            }
+
+            try {
+                Class.forName("jdk.jfr.Event");
+                return (EventRecorder) Class.forName(JFR_RECORDER)
+                    .getDeclaredConstructor()
+                    .newInstance();
+            } catch (Throwable throwable) {
+                // JFR or the JFR-based implementation is unavailable (e.g. Java 8 builds).
+                return NONE;
+            }
+        }
+    }
+}
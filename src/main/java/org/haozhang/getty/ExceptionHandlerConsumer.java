@@ -1,5 +1,7 @@
 package org.haozhang.getty;
 
+import java.util.Objects;
+
 /**
  * This functional interface represents an exception handler that accepts an object and an exception
  *   and returns nothing (having no {@code return} statement at all).
@@ -22,6 +24,32 @@ public interface ExceptionHandlerConsumer<T> {
         return (object, exception) -> { handleException(object, exception); return null; };
     }
 
+    /**
+     * Return an {@link ExceptionHandlerConsumer} which hands the invocations of this
+     *   {@link ExceptionHandlerConsumer} to the shared {@link ExceptionHandlerDispatcher} instead
+     *   of running them on the calling thread.
+     *
+     * @return An asynchronous equivalent of this {@link ExceptionHandlerConsumer}
+     *
+     * @see ExceptionHandlerDispatcher#getDefault()
+     */
+    default ExceptionHandlerConsumer<T> async() {
+        return async(ExceptionHandlerDispatcher.getDefault());
+    }
+
+    /**
+     * Return an {@link ExceptionHandlerConsumer} which hands the invocations of this
+     *   {@link ExceptionHandlerConsumer} to a given {@link ExceptionHandlerDispatcher} instead of
+     *   running them on the calling thread.
+     *
+     * @param dispatcher The {@link ExceptionHandlerDispatcher} to run the invocations on
+     * @return An asynchronous equivalent of this {@link ExceptionHandlerConsumer}
+     */
+    default ExceptionHandlerConsumer<T> async(ExceptionHandlerDispatcher dispatcher) {
+        Objects.requireNonNull(dispatcher, "The dispatcher cannot be null.");
+        return (object, exception) -> dispatcher.dispatch(this, object, exception);
+    }
+
     //==============================================================================================
     // Factory Methods
     //==============================================================================================
@@ -42,6 +70,16 @@ public interface ExceptionHandlerConsumer<T> {
         };
     }
 
+    /**
+     * Return an {@link ExceptionHandlerConsumer} that ignores the exception passed to it.
+     *
+     * @param <T> The type of the object consumed by the {@link ExceptionHandlerConsumer}
+     * @return An {@link ExceptionHandlerConsumer} that does nothing
+     */
+    static <T> ExceptionHandlerConsumer<T> ignoreException() {
+        return (object, exception) -> { };
+    }
+
     /**
      * Return an {@link ExceptionHandlerConsumer} that throws a {@link NullPointerException}.
      *
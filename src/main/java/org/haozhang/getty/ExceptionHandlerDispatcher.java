@@ -0,0 +1,324 @@
+package org.haozhang.getty;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class offloads {@link ExceptionHandlerConsumer} invocations from the calling thread onto a
+ *   bounded, lock-free queue which is drained by a single background worker thread.
+ * <br/><br/>
+ *
+ * Since {@link ExceptionHandlerConsumer}s are pure side effects (their
+ *   {@link ExceptionHandlerConsumer#toFunction()} equivalents always return {@code null}), their
+ *   invocations can be deferred without changing the value held by a Getty chain. This keeps the
+ *   cost of logging or metrics handlers off of the request path.
+ * <br/><br/>
+ *
+ * When the queue is full, the {@link OverflowPolicy} decides whether the invocation is dropped or
+ *   run on the calling thread instead (which naturally applies backpressure to the caller).
+ * <br/><br/>
+ *
+ * Handlers are invoked on the worker thread, so the objects and exceptions passed to them must be
+ *   safe to access from another thread.
+ *
+ * @see ExceptionHandlerConsumer#async()
+ * @see ExceptionHandlerConsumer#async(ExceptionHandlerDispatcher)
+ */
+public class ExceptionHandlerDispatcher implements AutoCloseable {
+    //==============================================================================================
+    // Static Variables
+    //==============================================================================================
+
+    /**
+     * The queue capacity used by the default {@link ExceptionHandlerDispatcher}
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The name given to worker threads
+     */
+    private static final String WORKER_NAME = "getty-exception-handler";
+
+    //==============================================================================================
+    // Instance-related
+    //==============================================================================================
+
+    /**
+     * The queue holding the pending handler invocations
+     */
+    private final Queue<Invocation<?>> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of handler invocations currently held by {@link #queue}
+     * <br/><br/>
+     *
+     * This is tracked separately since {@link ConcurrentLinkedQueue#size()} is not constant-time.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * The number of handler invocations dropped due to a full queue
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Whether the worker thread is parked (or about to park) waiting for new invocations
+     */
+    private final AtomicBoolean idle = new AtomicBoolean();
+
+    /**
+     * The maximum number of pending handler invocations
+     */
+    private final int capacity;
+
+    /**
+     * The policy applied when the queue is full
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * The worker thread draining {@link #queue}
+     */
+    private final Thread worker;
+
+    /**
+     * Whether this is the shared {@link ExceptionHandlerDispatcher}, which cannot be closed
+     */
+    private final boolean shared;
+
+    /**
+     * Whether this {@link ExceptionHandlerDispatcher} still accepts new handler invocations
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Construct an instance of {@link ExceptionHandlerDispatcher} and start its worker thread.
+     *
+     * @param capacity The maximum number of pending handler invocations; must be positive
+     * @param overflowPolicy The policy applied when the queue is full
+     */
+    public ExceptionHandlerDispatcher(int capacity, OverflowPolicy overflowPolicy) {
+        this(capacity, overflowPolicy, false);
+    }
+
+    /**
+     * Construct an instance of {@link ExceptionHandlerDispatcher} and start its worker thread.
+     *
+     * @param capacity The maximum number of pending handler invocations; must be positive
+     * @param overflowPolicy The policy applied when the queue is full
+     * @param shared Whether this is the shared instance, for which {@link #close()} does nothing
+     */
+    private ExceptionHandlerDispatcher(
+        int capacity,
+        OverflowPolicy overflowPolicy,
+        boolean shared
+    ) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "The policy cannot be null.");
+        this.shared = shared;
+
+        worker = new Thread(this::drain, WORKER_NAME);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    //==============================================================================================
+    // Public Methods
+    //==============================================================================================
+
+    /**
+     * Hand a handler invocation to the worker thread.
+     * <br/><br/>
+     *
+     * If the queue is full or this {@link ExceptionHandlerDispatcher} has been closed, then the
+     *   {@link OverflowPolicy} is applied.
+     *
+     * @param handler The handler to invoke
+     * @param object The object to pass to {@code handler}
+     * @param exception The exception to pass to {@code handler}
+     * @param <T> The type of the object consumed by {@code handler}
+     */
+    public <T> void dispatch(ExceptionHandlerConsumer<T> handler, T object, Exception exception) {
+        if (running) {
+            if (size.incrementAndGet() <= capacity) {
+                final Invocation<T> invocation = new Invocation<>(handler, object, exception);
+                queue.offer(invocation);
+                if (idle.get() && idle.compareAndSet(true, false)) {
+                    LockSupport.unpark(worker);
+                }
+
+                // If close() ran concurrently, the worker may have exited before the offer. Take
+                //   the invocation back unless the worker or close() has polled it already.
+                if (running || !queue.remove(invocation)) {
+                    return;
+                }
+            }
+            size.decrementAndGet();
+        }
+
+        if (OverflowPolicy.CALLER_RUNS == overflowPolicy) {
+            handler.handleException(object, exception);
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Return the number of handler invocations currently waiting to be run.
+     *
+     * @return The number of pending handler invocations
+     */
+    public int getPendingCount() {
+        return size.get();
+    }
+
+    /**
+     * Return the number of handler invocations dropped so far.
+     *
+     * @return The number of dropped handler invocations
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stop accepting new handler invocations, run the pending ones, and stop the worker thread.
+     * <br/><br/>
+     *
+     * Handler invocations dispatched after this call are subject to the {@link OverflowPolicy}.
+     *   Closing the shared instance returned by {@link #getDefault()} has no effect, since other
+     *   callers may still be using it.
+     */
+    @Override
+    public void close() {
+        if (shared) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(worker);
+
+        try {
+            worker.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Run the invocations queued by concurrent dispatches after the worker thread exited.
+        for (Invocation<?> invocation; null != (invocation = queue.poll()); ) {
+            size.decrementAndGet();
+            invocation.run();
+        }
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Run pending handler invocations until this {@link ExceptionHandlerDispatcher} is closed and
+     *   the queue has been emptied.
+     */
+    private void drain() {
+        while (true) {
+            final Invocation<?> invocation = queue.poll();
+
+            if (null != invocation) {
+                size.decrementAndGet();
+                invocation.run();
+            } else if (!running) {
+                return;
+            } else {
+                // Re-check the queue after announcing that we are idle to avoid a lost wake-up.
+                idle.set(true);
+                if (queue.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                idle.set(false);
+            }
+        }
+    }
+
+    //==============================================================================================
+    // Factory Methods
+    //==============================================================================================
+
+    /**
+     * Return the shared {@link ExceptionHandlerDispatcher} which drops invocations when its queue
+     *   (of size {@link #DEFAULT_CAPACITY}) is full.
+     * <br/><br/>
+     *
+     * The shared instance is created on first use and is never closed; calling {@link #close()} on
+     *   it has no effect.
+     *
+     * @return The shared {@link ExceptionHandlerDispatcher}
+     */
+    public static ExceptionHandlerDispatcher getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    //==============================================================================================
+    // Inner Classes
+    //==============================================================================================
+
+    /**
+     * This enum represents the action taken when a handler invocation cannot be queued.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Discard the handler invocation and increment the dropped count
+         */
+        DROP,
+
+        /**
+         * Run the handler invocation on the calling thread, slowing the caller down until the
+         *   worker thread catches up
+         */
+        CALLER_RUNS
+    }
+
+    /**
+     * This class holds a single pending handler invocation.
+     *
+     * @param <T> The type of the object consumed by the handler
+     */
+    private static final class Invocation<T> {
+        private final ExceptionHandlerConsumer<T> handler;
+        private final T object;
+        private final Exception exception;
+
+        private Invocation(ExceptionHandlerConsumer<T> handler, T object, Exception exception) {
+            this.handler = handler;
+            this.object = object;
+            this.exception = exception;
+        }
+
+        private void run() {
+            try {
+                handler.handleException(object, exception);
+            } catch (Throwable handlerException) {
+                // Errors are reported as well, so that they do not kill the worker thread.
+                Getty.getEventSink().onEvent(
+                    GettyEventSink.Event.ASYNC_HANDLER_FAILED, object, handlerException
+                );
+            }
+        }
+    }
+
+    /**
+     * This class lazily holds the shared {@link ExceptionHandlerDispatcher}.
+     */
+    private static final class DefaultHolder {
+        private static final ExceptionHandlerDispatcher INSTANCE =
+            new ExceptionHandlerDispatcher(DEFAULT_CAPACITY, OverflowPolicy.DROP, true);
+    }
+}
@@ -46,6 +46,18 @@ public interface ExceptionHandlerFunction<T, R> {
     // Factory Methods
     //==============================================================================================
 
+    /**
+     * Return an empty {@link TypedExceptionHandler} to which handlers for specific exception types
+     *   can be added. Exceptions with no registered handler return null.
+     *
+     * @param <T> The type of the object passed to the {@link ExceptionHandlerFunction}
+     * @param <R> The type of the object returned by the {@link ExceptionHandlerFunction}
+     * @return An empty {@link TypedExceptionHandler}
+     */
+    static <T, R> TypedExceptionHandler<T, R> byType() {
+        return TypedExceptionHandler.empty();
+    }
+
     /**
      * Return an {@link ExceptionHandlerFunction} that returns null.
      *
@@ -64,7 +76,12 @@ public interface ExceptionHandlerFunction<T, R> {
      * @return An {@link ExceptionHandlerFunction} that rethrows the exception passed to it
      */
     static <T, R> ExceptionHandlerFunction<T, R> rethrowException() {
-        return ExceptionHandlerConsumer.<T>rethrowException().toFunction();
+        return (object, exception) -> {
+            if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            }
+            throw new RuntimeException(exception);
+        };
     }
 
     /**
@@ -74,6 +91,6 @@ public interface ExceptionHandlerFunction<T, R> {
      * @return An {@link ExceptionHandlerFunction} that throws a {@link NullPointerException}
      */
     static <T, R> ExceptionHandlerFunction<T, R> throwNullPointerException() {
-        return ExceptionHandlerConsumer.<T>throwNullPointerException().toFunction();
+        return (object, exception) -> { throw new NullPointerException(); };
     }
 }
@@ -0,0 +1,372 @@
+package org.haozhang.getty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * This class returns the first non-{@code null} value out of several sources (e.g. a local cache, a
+ *   replica, and a computed default), like {@link Getty#firstNonNull(Supplier[])}, while keeping
+ *   statistics on each source.
+ * <br/><br/>
+ *
+ * Every attempt is counted in lock-free counters as a success (a non-{@code null} value), a miss
+ *   ({@code null}) or a failure (an exception, which is not logged), along with its duration:
+ * <pre>{@code
+ *   FallbackSources<Price> prices = FallbackSources.<Price>builder()
+ *       .source("cache", () -> cache.get(sku))
+ *       .source("replica", () -> replica.loadPrice(sku))
+ *       .source("computed", () -> Price.estimate(sku))
+ *       .build();
+ *
+ *   Price price = prices.get();
+ *   prices.getStats().forEach(System.out::println);
+ * }</pre>
+ *
+ * When built with {@link Builder#adaptive()}, the order of the attempts is recomputed every
+ *   {@link #REORDER_PERIOD} calls from the statistics gathered since the last reordering: sources
+ *   are tried by increasing expected time per success (their mean attempt duration divided by their
+ *   success rate), so that a cheap source which usually succeeds is tried first. Sources which were
+ *   not attempted since the last reordering keep their previous score. So that a demoted source
+ *   (such as a cache which was cold at startup) is noticed once it recovers, every
+ *   {@link #PROBE_PERIOD}th call tries the sources in the order they were added instead. Otherwise,
+ *   sources are always tried in the order they were added.
+ *
+ * @param <T> The type of the values
+ */
+public final class FallbackSources<T> {
+    /**
+     * The number of calls between two reorderings of adaptive sources
+     */
+    public static final int REORDER_PERIOD = 1024;
+
+    /**
+     * The number of calls between two calls trying adaptive sources in the order they were added
+     */
+    public static final int PROBE_PERIOD = 64;
+
+    //==============================================================================================
+    // Instance-related
+    //==============================================================================================
+
+    /**
+     * The sources in the order they were added
+     */
+    private final List<Source<T>> sources;
+
+    /**
+     * The sources in the order they were added, for probing
+     */
+    private final Source<T>[] added;
+
+    /**
+     * Whether the order of attempts is adapted to the statistics of the sources
+     */
+    private final boolean adaptive;
+
+    /**
+     * The sources in the order they are currently tried
+     */
+    private volatile Source<T>[] order;
+
+    /**
+     * The number of calls left before the next reordering; deliberately not atomic, since an
+     *   irregular reordering period is harmless
+     */
+    private int countdown = REORDER_PERIOD;
+
+    /**
+     * The number of calls left before the next probe; deliberately not atomic, like
+     *   {@link #countdown}
+     */
+    private int probeCountdown = PROBE_PERIOD;
+
+    /**
+     * Whether a reordering is in progress
+     */
+    private final AtomicBoolean reordering = new AtomicBoolean();
+
+    private FallbackSources(List<Source<T>> sources, boolean adaptive) {
+        this.sources = sources;
+        this.adaptive = adaptive;
+        this.added = sources.toArray(newArray(sources.size()));
+        this.order = added;
+    }
+
+    //==============================================================================================
+    // Public Methods
+    //==============================================================================================
+
+    /**
+     * Try the sources in order and return the first non-{@code null} value.
+     *
+     * @return The value, or {@code null} if every source failed or returned {@code null}
+     */
+    public T get() {
+        Source<T>[] current = order;
+        if (adaptive) {
+            if (--countdown <= 0) {
+                countdown = REORDER_PERIOD;
+                reorder();
+                current = order;
+            }
+            if (--probeCountdown <= 0) {
+                probeCountdown = PROBE_PERIOD;
+                current = added;
+            }
+        }
+
+        for (Source<T> source : current) {
+            final T value = source.attempt();
+            if (null != value) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The statistics of each source, in the order they are currently tried
+     */
+    public List<Stats> getStats() {
+        final Source<T>[] current = order;
+        final List<Stats> result = new ArrayList<>(current.length);
+        for (Source<T> source : current) {
+            result.add(source.getStats());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    //==============================================================================================
+    // Factory Methods
+    //==============================================================================================
+
+    /**
+     * @param <T> The type of the values
+     * @return A new {@link Builder}
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Sort the sources by their expected time per success since the last reordering. Only one
+     *   thread reorders at a time; concurrent calls skip it.
+     */
+    private void reorder() {
+        if (!reordering.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            for (Source<T> source : sources) {
+                source.updateScore();
+            }
+
+            final Source<T>[] sorted = sources.toArray(newArray(sources.size()));
+            Arrays.sort(sorted, Comparator.comparingDouble(source -> source.score)); // Stable
+            order = sorted;
+        } finally {
+            reordering.set(false);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Source<T>[] newArray(int length) {
+        return (Source<T>[]) new Source<?>[length];
+    }
+
+    //==============================================================================================
+    // Inner Classes
+    //==============================================================================================
+
+    /**
+     * This class builds a {@link FallbackSources}.
+     *
+     * @param <T> The type of the values
+     */
+    public static final class Builder<T> {
+        private final List<Source<T>> sources = new ArrayList<>();
+        private boolean adaptive;
+
+        private Builder() {
+        }
+
+        /**
+         * Add a source, to be tried after the ones added before it (unless reordered).
+         *
+         * @param name The name of the source, used in its {@link Stats}
+         * @param supplier The supplier of the source's values
+         * @return This {@link Builder}
+         */
+        public Builder<T> source(String name, Supplier<? extends T> supplier) {
+            Objects.requireNonNull(name, "The name cannot be null.");
+            Objects.requireNonNull(supplier, "The supplier cannot be null.");
+            sources.add(new Source<>(name, supplier));
+            return this;
+        }
+
+        /**
+         * Reorder the attempts periodically according to the statistics of the sources.
+         *
+         * @return This {@link Builder}
+         */
+        public Builder<T> adaptive() {
+            adaptive = true;
+            return this;
+        }
+
+        /**
+         * @return A new {@link FallbackSources} over the added sources
+         */
+        public FallbackSources<T> build() {
+            if (sources.isEmpty()) {
+                throw new IllegalArgumentException("At least one source is needed.");
+            }
+            return new FallbackSources<>(new ArrayList<>(sources), adaptive);
+        }
+    }
+
+    /**
+     * This class holds a single source with its counters.
+     *
+     * @param <T> The type of the values
+     */
+    private static final class Source<T> {
+        private final String name;
+        private final Supplier<? extends T> supplier;
+
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        // The counter values at the last reordering and the resulting score; only accessed while
+        //   holding the reordering flag.
+        private long lastAttempts;
+        private long lastSuccesses;
+        private long lastNanos;
+        private double score;
+
+        private Source(String name, Supplier<? extends T> supplier) {
+            this.name = name;
+            this.supplier = supplier;
+        }
+
+        private T attempt() {
+            final long start = System.nanoTime();
+            T value = null;
+            try {
+                value = supplier.get();
+            } catch (Exception exception) {
+                failures.increment();
+            }
+
+            nanos.add(System.nanoTime() - start);
+            attempts.increment();
+            if (null != value) {
+                successes.increment();
+            }
+            return value;
+        }
+
+        private void updateScore() {
+            final long currentAttempts = attempts.sum();
+            final long currentSuccesses = successes.sum();
+            final long currentNanos = nanos.sum();
+
+            final long windowAttempts = currentAttempts - lastAttempts;
+            if (windowAttempts > 0) {
+                final long windowSuccesses = currentSuccesses - lastSuccesses;
+                final double meanNanos = (double) (currentNanos - lastNanos) / windowAttempts;
+                score = 0 != windowSuccesses
+                    ? meanNanos * windowAttempts / windowSuccesses
+                    : Double.POSITIVE_INFINITY;
+            }
+
+            lastAttempts = currentAttempts;
+            lastSuccesses = currentSuccesses;
+            lastNanos = currentNanos;
+        }
+
+        private Stats getStats() {
+            return new Stats(name, attempts.sum(), successes.sum(), failures.sum(), nanos.sum());
+        }
+    }
+
+    /**
+     * This class holds a snapshot of the statistics of a source.
+     */
+    public static final class Stats {
+        private final String name;
+        private final long attempts;
+        private final long successes;
+        private final long failures;
+        private final long totalNanos;
+
+        private Stats(String name, long attempts, long successes, long failures, long totalNanos) {
+            this.name = name;
+            this.attempts = attempts;
+            this.successes = successes;
+            this.failures = failures;
+            this.totalNanos = totalNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The number of times the source was tried
+         */
+        public long getAttempts() {
+            return attempts;
+        }
+
+        /**
+         * @return The number of attempts which returned a non-{@code null} value
+         */
+        public long getSuccesses() {
+            return successes;
+        }
+
+        /**
+         * @return The number of attempts which threw an exception
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return The fraction of attempts which returned a non-{@code null} value
+         */
+        public double getSuccessRate() {
+            return 0 != attempts ? (double) successes / attempts : 0;
+        }
+
+        /**
+         * @return The mean duration of an attempt, in nanoseconds
+         */
+        public double getMeanNanos() {
+            return 0 != attempts ? (double) totalNanos / attempts : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%s{attempts=%d, successRate=%.3f, failures=%d, mean=%.3fus}",
+                name, attempts, getSuccessRate(), failures, getMeanNanos() / 1e3
+            );
+        }
+    }
+}
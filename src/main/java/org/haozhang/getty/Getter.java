@@ -1,5 +1,7 @@
 package org.haozhang.getty;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -24,4 +26,65 @@ import java.util.function.Function;
  */
 @FunctionalInterface
 public interface Getter<T, R> extends Function<T, R> {
+    /**
+     * Return a {@link CircuitBreakerGetter} which stops calling this {@link Getter} for
+     *   {@code coolDown} once it has thrown {@code failureThreshold} exceptions within
+     *   {@code window}.
+     *
+     * @param failureThreshold The number of failures within {@code window} that opens the circuit
+     *   breaker
+     * @param window The length of the window in which failures are counted
+     * @param coolDown The amount of time the circuit breaker stays open before half-opening
+     * @param unit The time unit of {@code window} and {@code coolDown}
+     * @return A {@link CircuitBreakerGetter} guarding this {@link Getter}
+     */
+    default CircuitBreakerGetter<T, R> withCircuitBreaker(
+        int failureThreshold,
+        long window,
+        long coolDown,
+        TimeUnit unit
+    ) {
+        return new CircuitBreakerGetter<>(this, failureThreshold, window, coolDown, unit);
+    }
+
+    /**
+     * Return a {@link HedgedGetter} which calls this idempotent {@link Getter} on a given executor,
+     *   and starts a backup attempt if the first one has not completed within a fixed delay. At
+     *   most {@link HedgedGetter#DEFAULT_BUDGET} backup attempts are made per call on average.
+     *
+     * @param executor The executor to run the attempts on
+     * @param delay The delay after which a backup attempt is started
+     * @param unit The time unit of {@code delay}
+     * @return A {@link HedgedGetter} hedging this {@link Getter}
+     */
+    default HedgedGetter<T, R> withHedging(Executor executor, long delay, TimeUnit unit) {
+        return new HedgedGetter<>(this, executor, 0, delay, unit, HedgedGetter.DEFAULT_BUDGET);
+    }
+
+    /**
+     * Return a {@link HedgedGetter} which calls this idempotent {@link Getter} on a given executor,
+     *   and starts a backup attempt if the first one is slower than a given percentile of the
+     *   previous first attempts. At most {@link HedgedGetter#DEFAULT_BUDGET} backup attempts are
+     *   made per call on average.
+     *
+     * @param executor The executor to run the attempts on
+     * @param percentile The percentile of first attempt latencies after which a backup attempt is
+     *   started, e.g. {@code 0.95}
+     * @param initialDelay The delay used until enough latencies have been measured
+     * @param unit The time unit of {@code initialDelay}
+     * @return A {@link HedgedGetter} hedging this {@link Getter}
+     */
+    default HedgedGetter<T, R> withHedging(
+        Executor executor,
+        double percentile,
+        long initialDelay,
+        TimeUnit unit
+    ) {
+        if (percentile <= 0) {
+            throw new IllegalArgumentException("The percentile must be positive: " + percentile);
+        }
+        return new HedgedGetter<>(
+            this, executor, percentile, initialDelay, unit, HedgedGetter.DEFAULT_BUDGET
+        );
+    }
 }
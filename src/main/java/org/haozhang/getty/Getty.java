@@ -1,13 +1,16 @@
 package org.haozhang.getty;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 /**
  * This class is the main entry-point of the Getty library, which provides a mechanism to chain long
@@ -45,8 +48,6 @@ import java.util.function.Supplier;
  * @param <T> The type of the object held by this {@link Getty} instance
  */
 public class Getty<T> {
-    private static final Logger LOGGER = LoggerFactory.getLogger(Getty.class);
-
     //==============================================================================================
     // Static Variables
     //==============================================================================================
@@ -62,6 +63,12 @@ public class Getty<T> {
      */
     private static final String CACHE_DETERMINER = Getty.class.getPackage().getName() + ".cache";
 
+    /**
+     * The value of the {@link #CACHE_DETERMINER} system property which selects
+     *   {@link #adaptive(Object)} in {@link #of(Object)}
+     */
+    private static final String ADAPTIVE_MODE = "adaptive";
+
     /**
      * A message indicating the incorrect use of {@code null} as the head of a Getty chain
      */
@@ -72,6 +79,17 @@ public class Getty<T> {
      */
     private static final Object NULL_SENTINEL = new Object();
 
+    /**
+     * The number of hops after which repeat steps start tracking visited objects to detect cycles;
+     *   shorter walks never allocate
+     */
+    private static final int CYCLE_CHECK_DEPTH = 16;
+
+    /**
+     * The sink receiving the diagnostic events of the library
+     */
+    private static volatile GettyEventSink eventSink = GettyEventSink.NONE;
+
     //==============================================================================================
     // Instance-related
     //==============================================================================================
@@ -89,6 +107,15 @@ public class Getty<T> {
      */
     private final GettyChain chain;
 
+    /**
+     * The state shared by the Getty chain that this {@link Getty} instance belongs to, such as its
+     *   deadline
+     * <br/><br/>
+     *
+     * This is {@code null} for cached chains and for uncached chains without any such state.
+     */
+    private final ChainContext context;
+
     /**
      * Construct an instance of {@link Getty} with an object that it will hold, as well as the Getty
      *   chain that it will belong to, if any.
@@ -100,10 +127,12 @@ public class Getty<T> {
      * @param object The object to be held by this {@link Getty} instance
      * @param chain The Getty chain that this {@link Getty} instance belongs to; {@code null} if the
      *   chain is uncached
+     * @param context The state shared by the Getty chain; {@code null} if there is none
      */
-    private Getty(T object, GettyChain chain) {
+    private Getty(T object, GettyChain chain, ChainContext context) {
         this.object = object;
         this.chain = chain;
+        this.context = context;
     }
 
     //==============================================================================================
@@ -123,6 +152,8 @@ public class Getty<T> {
     public T get() {
         if (null != chain) {
             uncacheChain();
+        } else if (null != context) {
+            context.finish();
         }
         return object;
     }
@@ -137,6 +168,9 @@ public class Getty<T> {
      * @return The object held by this {@link Getty} instance
      */
     public T getAndCache() {
+        if (null != context) {
+            context.finish();
+        }
         return object;
     }
 
@@ -152,19 +186,15 @@ public class Getty<T> {
      * @return A {@link Getty} instance holding the object returned by {@code getter}
      */
     public <R> Getty<R> get(Getter<T, R> getter) {
-        return get(getter, ExceptionHandlerFunction.returnNull());
+        return chain(apply(getter));
     }
 
     public <R> Getty<R> get(Getter<T, R> getter, ExceptionHandlerConsumer<T> exceptionHandler) {
-        return get(getter, exceptionHandler.toFunction());
+        return chain(apply(getter, exceptionHandler));
     }
 
     public <R> Getty<R> get(Getter<T, R> getter, ExceptionHandlerFunction<T, R> exceptionHandler) {
-        try {
-            return chain(getter.apply(object));
-        } catch (Exception exception) {
-            return chain(exceptionHandler.handleException(object, exception));
-        }
+        return chain(apply(getter, exceptionHandler));
     }
 
     /**
@@ -179,23 +209,18 @@ public class Getty<T> {
      *   {@code defaultValue}
      */
     public <R> Getty<R> getOrDefault(Getter<T, R> getter, R defaultValue) {
-        return getOrDefault(getter, defaultValue, (object, exception) -> defaultValue);
+        final R value = apply(getter);
+        return chain(null != value ? value : fallBack(getter, defaultValue));
     }
 
     public <R> Getty<R> getOrDefault(Getter<T, R> getter, Supplier<R> defaultValueSupplier) {
-        return getOrDefault(
-            getter,
-            defaultValueSupplier,
-            ExceptionHandlerFunction.fromSupplier(defaultValueSupplier)
-        );
+        final R value = apply(getter);
+        return chain(null != value ? value : fallBack(getter, defaultValueSupplier.get()));
     }
 
     public <R> Getty<R> getOrDefault(Getter<T, R> getter, Function<T, R> defaultValueFunction) {
-        return getOrDefault(
-            getter,
-            defaultValueFunction,
-            ExceptionHandlerFunction.fromFunction(defaultValueFunction)
-        );
+        final R value = apply(getter);
+        return chain(null != value ? value : fallBack(getter, defaultValueFunction.apply(object)));
     }
 
     public <R> Getty<R> getOrDefault(
@@ -203,7 +228,8 @@ public class Getty<T> {
         R defaultValue,
         ExceptionHandlerConsumer<T> exceptionHandler
     ) {
-        return getOrDefault(getter, defaultValue, exceptionHandler.toFunction());
+        final R value = apply(getter, exceptionHandler);
+        return chain(null != value ? value : fallBack(getter, defaultValue));
     }
 
     public <R> Getty<R> getOrDefault(
@@ -211,7 +237,8 @@ public class Getty<T> {
         Supplier<R> defaultValueSupplier,
         ExceptionHandlerConsumer<T> exceptionHandler
     ) {
-        return getOrDefault(getter, defaultValueSupplier, exceptionHandler.toFunction());
+        final R value = apply(getter, exceptionHandler);
+        return chain(null != value ? value : fallBack(getter, defaultValueSupplier.get()));
     }
 
     public <R> Getty<R> getOrDefault(
@@ -219,7 +246,8 @@ public class Getty<T> {
         Function<T, R> defaultValueFunction,
         ExceptionHandlerConsumer<T> exceptionHandler
     ) {
-        return getOrDefault(getter, defaultValueFunction, exceptionHandler.toFunction());
+        final R value = apply(getter, exceptionHandler);
+        return chain(null != value ? value : fallBack(getter, defaultValueFunction.apply(object)));
     }
 
     public <R> Getty<R> getOrDefault(
@@ -227,8 +255,8 @@ public class Getty<T> {
         R defaultValue,
         ExceptionHandlerFunction<T, R> exceptionHandler
     ) {
-        final R value = get(getter, exceptionHandler).object;
-        return chain(null != value ? value : defaultValue);
+        final R value = apply(getter, exceptionHandler);
+        return chain(null != value ? value : fallBack(getter, defaultValue));
     }
 
     public <R> Getty<R> getOrDefault(
@@ -236,8 +264,8 @@ public class Getty<T> {
         Supplier<R> defaultValueSupplier,
         ExceptionHandlerFunction<T, R> exceptionHandler
     ) {
-        final R value = get(getter, exceptionHandler).object;
-        return chain(null != value ? value : defaultValueSupplier.get());
+        final R value = apply(getter, exceptionHandler);
+        return chain(null != value ? value : fallBack(getter, defaultValueSupplier.get()));
     }
 
     public <R> Getty<R> getOrDefault(
@@ -245,36 +273,388 @@ public class Getty<T> {
         Function<T, R> defaultValueFunction,
         ExceptionHandlerFunction<T, R> exceptionHandler
     ) {
-        final R value = get(getter, exceptionHandler).object;
-        return chain(null != value ? value : defaultValueFunction.apply(object));
+        final R value = apply(getter, exceptionHandler);
+        return chain(null != value ? value : fallBack(getter, defaultValueFunction.apply(object)));
     }
 
     public <R> Getty<R> getNonNull(Getter<T, R> getter) {
-        return getNonNull(getter, ExceptionHandlerFunction.throwNullPointerException());
+        final R value = apply(getter);
+        if (null == value) {
+            throw new NullPointerException();
+        }
+        return chain(value);
     }
 
     public <R> Getty<R> getNonNull(
         Getter<T, R> getter,
         ExceptionHandlerConsumer<T> exceptionHandler
     ) {
-        return getNonNull(getter, exceptionHandler.toFunction());
+        final R value = apply(getter, exceptionHandler);
+        if (null == value) {
+            final NullPointerException exception = new NullPointerException();
+            EventRecorder.INSTANCE.handlerInvoked(getter, exception);
+            exceptionHandler.handleException(object, exception);
+        }
+        return chain(value);
     }
 
     public <R> Getty<R> getNonNull(
         Getter<T, R> getter,
         ExceptionHandlerFunction<T, R> exceptionHandler
     ) {
-        final R value = get(getter, exceptionHandler).object;
-        if (value == null) {
-            return chain(exceptionHandler.handleException(object, new NullPointerException()));
+        final R value = apply(getter, exceptionHandler);
+        if (null == value) {
+            final NullPointerException exception = new NullPointerException();
+            EventRecorder.INSTANCE.handlerInvoked(getter, exception);
+            return chain(exceptionHandler.handleException(object, exception));
         }
         return chain(value);
     }
 
+    //==============================================================================================
+    // Repeating Chaining Methods
+    //==============================================================================================
+
+    /**
+     * Return a {@link Getty} instance holding the last non-{@code null} object reached by calling
+     *   a given {@link Getter} repeatedly, starting with the object held by this {@link Getty}
+     *   instance. For example, {@code repeat(Node::getParent)} returns the root of a tree.
+     * <br/><br/>
+     *
+     * If the getter throws an exception (as when a lazy load fails) or the walk runs into a
+     *   cycle, then the returned {@link Getty} instance holds {@code null} rather than an
+     *   intermediate object, just like a failed link.
+     *
+     * @param getter The getter to call repeatedly
+     * @return A {@link Getty} instance holding the last object reached
+     */
+    public Getty<T> repeat(Getter<T, T> getter) {
+        return repeat(getter, Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Return a {@link Getty} instance holding the last non-{@code null} object reached by calling
+     *   a given {@link Getter} repeatedly, or {@code null} if the getter throws an exception, the
+     *   walk has not ended after {@code maxDepth} calls, or (if {@code detectCycles} is set) the
+     *   walk runs into a cycle. Since the walk only ends when the getter returns {@code null}, a
+     *   walk of {@code n} hops takes {@code n + 1} calls.
+     *
+     * @param getter The getter to call repeatedly
+     * @param maxDepth The maximum number of times to call {@code getter}
+     * @param detectCycles Whether to stop walks that revisit an object
+     * @return A {@link Getty} instance holding the last object reached
+     *
+     * @see #repeat(Getter)
+     */
+    public Getty<T> repeat(Getter<T, T> getter, int maxDepth, boolean detectCycles) {
+        return chain(applyRepeatedly(getter, null, maxDepth, detectCycles));
+    }
+
+    /**
+     * Return a {@link Getty} instance holding the first object matching a given {@link Predicate},
+     *   testing the object held by this {@link Getty} instance first and then the objects reached
+     *   by calling a given {@link Getter} repeatedly. For example,
+     *   {@code repeatUntil(Node::getParent, Node::isRoot)}.
+     * <br/><br/>
+     *
+     * If the getter throws an exception or returns {@code null}, or the walk runs into a cycle,
+     *   before an object matches, then the returned {@link Getty} instance holds {@code null}.
+     *
+     * @param getter The getter to call repeatedly
+     * @param predicate The predicate to test each object with
+     * @return A {@link Getty} instance holding the first matching object, or {@code null}
+     */
+    public Getty<T> repeatUntil(Getter<T, T> getter, Predicate<? super T> predicate) {
+        return repeatUntil(getter, predicate, Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Return a {@link Getty} instance holding the first object matching a given {@link Predicate},
+     *   or {@code null} if no object matches within {@code maxDepth} hops (that is, calls to the
+     *   getter).
+     *
+     * @param getter The getter to call repeatedly
+     * @param predicate The predicate to test each object with
+     * @param maxDepth The maximum number of times to call {@code getter}
+     * @param detectCycles Whether to stop walks that revisit an object
+     * @return A {@link Getty} instance holding the first matching object, or {@code null}
+     *
+     * @see #repeatUntil(Getter, Predicate)
+     */
+    public Getty<T> repeatUntil(
+        Getter<T, T> getter,
+        Predicate<? super T> predicate,
+        int maxDepth,
+        boolean detectCycles
+    ) {
+        Objects.requireNonNull(predicate, "The predicate cannot be null.");
+        return chain(applyRepeatedly(getter, predicate, maxDepth, detectCycles));
+    }
+
+    //==============================================================================================
+    // Collection Chaining Methods
+    //==============================================================================================
+
+    /**
+     * Return a lazy {@link GettyEach} over the non-{@code null} elements of the {@link Iterable}
+     *   returned by a given {@link Getter}. If the getter throws an exception or returns
+     *   {@code null}, then the returned {@link GettyEach} is empty; if iterating the
+     *   {@link Iterable} throws, then the iteration ends.
+     * <br/><br/>
+     *
+     * Like {@link #get()}, this ends the Getty chain and removes its cached {@link Getty}
+     *   instances.
+     *
+     * @param getter The getter to call with the object held by this {@link Getty} instance
+     * @param <E> The type of the elements of the {@link Iterable} returned by {@code getter}
+     * @return A {@link GettyEach} over the elements returned by {@code getter}
+     */
+    public <E> GettyEach<E> getEach(Getter<T, ? extends Iterable<E>> getter) {
+        return getEach(getter, ExceptionHandlerConsumer.ignoreException());
+    }
+
+    /**
+     * Return a lazy {@link GettyEach} over the non-{@code null} elements of the {@link Iterable}
+     *   returned by a given {@link Getter}. If the getter throws an exception, then the exception
+     *   is passed to a given {@link ExceptionHandlerConsumer} and the returned {@link GettyEach} is
+     *   empty; if iterating the {@link Iterable} throws (such as a lazily loaded association), then
+     *   the exception is passed to the {@link ExceptionHandlerConsumer} and the iteration ends.
+     *
+     * @param getter The getter to call with the object held by this {@link Getty} instance
+     * @param exceptionHandler The handler to call if {@code getter} or the iteration fails
+     * @param <E> The type of the elements of the {@link Iterable} returned by {@code getter}
+     * @return A {@link GettyEach} over the elements returned by {@code getter}
+     *
+     * @see #getEach(Getter)
+     */
+    public <E> GettyEach<E> getEach(
+        Getter<T, ? extends Iterable<E>> getter,
+        ExceptionHandlerConsumer<T> exceptionHandler
+    ) {
+        final T owner = object;
+        final Iterable<E> elements = apply(getter, exceptionHandler);
+        if (null != chain) {
+            uncacheChain();
+        } else if (null != context) {
+            context.finish();
+        }
+        return new GettyEach<>(sink -> GettyEach.pushAll(elements, sink, owner, exceptionHandler));
+    }
+
+    /**
+     * Return a lazy {@link GettyEach} over the non-{@code null} elements of the array returned by
+     *   a given {@link Getter}.
+     *
+     * @param getter The getter to call with the object held by this {@link Getty} instance
+     * @param <E> The type of the elements of the array returned by {@code getter}
+     * @return A {@link GettyEach} over the elements returned by {@code getter}
+     *
+     * @see #getEach(Getter)
+     */
+    public <E> GettyEach<E> getEachOfArray(Getter<T, E[]> getter) {
+        final E[] elements = apply(getter);
+        if (null != chain) {
+            uncacheChain();
+        } else if (null != context) {
+            context.finish();
+        }
+        return new GettyEach<>(sink -> GettyEach.pushAll(elements, sink));
+    }
+
     //==============================================================================================
     // Helper Methods
     //==============================================================================================
 
+    // The apply() methods below handle exceptions without creating intermediate Getty instances or
+    //   handler lambdas, so that escape analysis can scalar-replace uncached chains entirely.
+
+    /**
+     * Record the value returned by the getter of a link on the chain's context, if any.
+     *
+     * @param context The context of the chain; {@code null} if there is none
+     * @param value The value returned by the getter
+     * @param <R> The type of the value
+     * @return {@code value}
+     */
+    private static <R> R afterLink(ChainContext context, R value) {
+        if (null != context) {
+            context.afterLink(value);
+        }
+        return value;
+    }
+
+    /**
+     * Call a given {@link Getter} with the object held by this {@link Getty} instance. If the call
+     *   fails, then return {@code null}.
+     *
+     * @param getter The getter to call with the object held by this {@link Getty} instance
+     * @param <R> The return type of {@code getter}
+     * @return The object returned by {@code getter}, or {@code null} if the call failed
+     */
+    private <R> R apply(Getter<T, R> getter) {
+        final ChainContext context = this.context;
+        try {
+            if (null != context) {
+                context.beforeLink(object);
+            }
+            return afterLink(context, getter.apply(object));
+        } catch (Exception exception) {
+            if (null != context) {
+                context.linkFailed(exception);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Call a given {@link Getter} with the object held by this {@link Getty} instance. If the call
+     *   fails, then pass the exception to a given {@link ExceptionHandlerConsumer} and return
+     *   {@code null}.
+     *
+     * @param getter The getter to call with the object held by this {@link Getty} instance
+     * @param exceptionHandler The handler to call if {@code getter} fails
+     * @param <R> The return type of {@code getter}
+     * @return The object returned by {@code getter}, or {@code null} if the call failed
+     */
+    private <R> R apply(Getter<T, R> getter, ExceptionHandlerConsumer<T> exceptionHandler) {
+        final ChainContext context = this.context;
+        try {
+            if (null != context) {
+                context.beforeLink(object);
+            }
+            return afterLink(context, getter.apply(object));
+        } catch (Exception exception) {
+            if (null != context) {
+                context.linkFailed(exception);
+            }
+            EventRecorder.INSTANCE.handlerInvoked(getter, exception);
+            exceptionHandler.handleException(object, exception);
+            return null;
+        }
+    }
+
+    /**
+     * Call a given {@link Getter} with the object held by this {@link Getty} instance. If the call
+     *   fails, then return the object returned by a given {@link ExceptionHandlerFunction}.
+     *
+     * @param getter The getter to call with the object held by this {@link Getty} instance
+     * @param exceptionHandler The handler to call if {@code getter} fails
+     * @param <R> The return type of {@code getter}
+     * @return The object returned by {@code getter} or {@code exceptionHandler}
+     */
+    private <R> R apply(Getter<T, R> getter, ExceptionHandlerFunction<T, R> exceptionHandler) {
+        final ChainContext context = this.context;
+        try {
+            if (null != context) {
+                context.beforeLink(object);
+            }
+            return afterLink(context, getter.apply(object));
+        } catch (Exception exception) {
+            if (null != context) {
+                context.linkFailed(exception);
+            }
+            EventRecorder.INSTANCE.handlerInvoked(getter, exception);
+            return exceptionHandler.handleException(object, exception);
+        }
+    }
+
+    /**
+     * Record the use of a default value in place of the value of a given {@link Getter}.
+     *
+     * @param getter The getter which failed or returned {@code null}; {@code null} for the simple
+     *   getter methods
+     * @param defaultValue The default value
+     * @param <R> The type of the default value
+     * @return {@code defaultValue}
+     */
+    private static <R> R fallBack(Getter<?, ?> getter, R defaultValue) {
+        EventRecorder.INSTANCE.defaultUsed(getter);
+        return defaultValue;
+    }
+
+    /**
+     * Walk from the object held by this {@link Getty} instance, as a single link of the Getty
+     *   chain. If the walk fails, then return {@code null}.
+     *
+     * @see #walk(Object, Getter, Predicate, int, boolean, ChainContext)
+     */
+    private T applyRepeatedly(
+        Getter<T, T> getter,
+        Predicate<? super T> predicate,
+        int maxDepth,
+        boolean detectCycles
+    ) {
+        final ChainContext context = this.context;
+        try {
+            if (null != context) {
+                context.beforeLink(object);
+            }
+            return afterLink(
+                context, walk(object, getter, predicate, maxDepth, detectCycles, context)
+            );
+        } catch (Exception exception) {
+            if (null != context) {
+                context.linkFailed(exception);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Walk from a given object by calling a given {@link Getter} in a loop, so that the stack depth
+     *   does not grow with the length of the walk. Visited objects are only tracked, in an identity
+     *   set, once the walk is longer than {@link #CYCLE_CHECK_DEPTH} hops; a cycle entered earlier
+     *   is still caught when it comes around again.
+     *
+     * @param start The object to start from
+     * @param getter The getter to call repeatedly
+     * @param predicate The predicate an object must match to end the walk, or {@code null} to walk
+     *   until the getter returns {@code null}
+     * @param maxDepth The maximum number of times to call {@code getter}
+     * @param detectCycles Whether to stop walks that revisit an object
+     * @param context The state of the Getty chain; a walk outliving its deadline yields
+     *   {@code null}
+     * @param <T> The type of the objects walked
+     * @return The matching (or last, if {@code predicate} is {@code null}) object, or {@code null}
+     * @throws RuntimeException If {@code getter} throws
+     */
+    private static <T> T walk(
+        T start,
+        Getter<T, T> getter,
+        Predicate<? super T> predicate,
+        int maxDepth,
+        boolean detectCycles,
+        ChainContext context
+    ) {
+        Set<T> visited = null;
+        T current = start;
+
+        for (int depth = 0; null != current; depth++) {
+            if (null != predicate && predicate.test(current)) {
+                return current;
+            }
+
+            if (depth >= maxDepth || (null != context && context.isExpired())) {
+                return null;
+            }
+
+            final T next = getter.apply(current);
+            if (null == next) {
+                return null == predicate ? current : null;
+            }
+            if (detectCycles && depth >= CYCLE_CHECK_DEPTH) {
+                if (null == visited) {
+                    visited = Collections.newSetFromMap(new IdentityHashMap<>());
+                }
+                if (!visited.add(next)) {
+                    return null;
+                }
+            }
+            current = next;
+        }
+        return null;
+    }
+
     /**
      * Return a {@link Getty} instance on the same Getty chain that this {@link Getty} instance
      *   belongs to (if it exists) holding a given object.
@@ -288,7 +668,9 @@ public class Getty<T> {
      * @return A {@link Getty} instance on the same Getty chain holding the given object
      */
     private <R> Getty<R> chain(R object) {
-        return null != chain ? getCachedInstance(object, chain) : getUncachedInstance(object);
+        return null != chain
+            ? getCachedInstance(object, chain)
+            : getUncachedInstance(object, context);
     }
 
     /**
@@ -298,23 +680,36 @@ public class Getty<T> {
      * This should only be called if {@link #chain} is not {@code null}.
      */
     private void uncacheChain() {
-        LOGGER.debug(
-            "Removing chain from cache: object={}, head={}, chain={}",
-            object, chain.head, chain
-        );
+        eventSink.onEvent(GettyEventSink.Event.CHAIN_UNCACHED, chain.head, null);
+        EventRecorder.INSTANCE.cacheEvicted(chain.head, chain.size());
         chain.clear();
-        CACHE.remove(chain.head, chain);
+        chain.owner.remove(chain.head, chain);
+    }
+
+    /**
+     * Return the Getty chain for a given head, from the {@link GettyScope} open on the current
+     *   thread if there is one, or from the global cache otherwise.
+     *
+     * @param head The head of the Getty chain
+     * @return The Getty chain
+     */
+    private static GettyChain getChain(Object head) {
+        final GettyChain chain = GettyScope.getChain(head);
+        return null != chain
+            ? chain
+            : CACHE.computeIfAbsent(head, key -> new GettyChain(key, CACHE));
     }
 
     /**
      * Return an uncached {@link Getty} instance holding a given object.
      *
      * @param object The object to be held by the returned {@link Getty} instance
+     * @param context The state shared by the Getty chain; {@code null} if there is none
      * @param <T> The type of the object to be held by the returned {@link Getty} instance
      * @return An uncached {@link Getty} instance holding the given object
      */
-    private static <T> Getty<T> getUncachedInstance(T object) {
-        return new Getty<>(object, null);
+    private static <T> Getty<T> getUncachedInstance(T object, ChainContext context) {
+        return new Getty<>(object, null, context);
     }
 
     /**
@@ -328,10 +723,37 @@ public class Getty<T> {
      *   object
      */
     private static <T> Getty<T> getCachedInstance(T object, GettyChain chain) {
-        return (Getty<T>) chain.computeIfAbsent(
-            object == null ? (T) NULL_SENTINEL : object,
-            __ -> new Getty<>(object, chain)
-        );
+        final Object key = object == null ? NULL_SENTINEL : object;
+
+        // Look up existing instances first to avoid creating a capturing lambda on cache hits.
+        final Getty<?> instance = chain.get(key);
+        if (null != instance) {
+            return (Getty<T>) instance;
+        }
+        return (Getty<T>) chain.computeIfAbsent(key, __ -> {
+            EventRecorder.INSTANCE.cacheInserted(chain.head);
+            return new Getty<>(object, chain, null);
+        });
+    }
+
+    //==============================================================================================
+    // Diagnostics
+    //==============================================================================================
+
+    /**
+     * Install the sink receiving the diagnostic events of the library, replacing the current one.
+     *
+     * @param sink The event sink; {@link GettyEventSink#NONE} to ignore all events (the default)
+     */
+    public static void setEventSink(GettyEventSink sink) {
+        eventSink = Objects.requireNonNull(sink, "The event sink cannot be null.");
+    }
+
+    /**
+     * @return The sink receiving the diagnostic events of the library
+     */
+    public static GettyEventSink getEventSink() {
+        return eventSink;
     }
 
     //==============================================================================================
@@ -346,7 +768,8 @@ public class Getty<T> {
      * @return The value
      */
     public static <T> T get(Supplier<T> valueSupplier) {
-        return getOrDefault(valueSupplier, (Supplier<T>) () -> null);
+        Objects.requireNonNull(valueSupplier, "The value supplier cannot be null.");
+        return getOrNull(valueSupplier);
     }
 
     /**
@@ -360,7 +783,10 @@ public class Getty<T> {
      * @return The value
      */
     public static <T> T getOrDefault(Supplier<T> valueSupplier, T defaultValue) {
-        return getOrDefault(valueSupplier, (Supplier<T>) () -> defaultValue);
+        Objects.requireNonNull(valueSupplier, "The value supplier cannot be null.");
+
+        final T value = getOrNull(valueSupplier);
+        return null != value ? value : fallBack(null, defaultValue);
     }
 
     /**
@@ -378,19 +804,58 @@ public class Getty<T> {
         Objects.requireNonNull(valueSupplier, "The value supplier cannot be null.");
         Objects.requireNonNull(defaultValueSupplier, "The default value supplier cannot be null.");
 
+        final T value = getOrNull(valueSupplier);
+        if (null != value) {
+            return value;
+        }
+
+        EventRecorder.INSTANCE.defaultUsed(null);
         try {
-            final T value = valueSupplier.get();
+            return defaultValueSupplier.get();
+        } catch (Exception exception) {
+            eventSink.onEvent(GettyEventSink.Event.DEFAULT_SUPPLIER_FAILED, null, exception);
+            return null;
+        }
+    }
+
+    /**
+     * Call the given suppliers in order and return the first non-{@code null} value. Suppliers
+     *   whose call fails are skipped.
+     * <br/><br/>
+     *
+     * To keep statistics on each supplier, or to try the most likely successful one first, use
+     *   {@link FallbackSources} instead.
+     *
+     * @param valueSuppliers The suppliers to call to retrieve the value
+     * @param <T> The type of the value returned by {@code valueSuppliers}
+     * @return The value, or {@code null} if every call failed or returned {@code null}
+     */
+    @SafeVarargs
+    public static <T> T firstNonNull(Supplier<? extends T>... valueSuppliers) {
+        for (Supplier<? extends T> valueSupplier : valueSuppliers) {
+            Objects.requireNonNull(valueSupplier, "The value supplier cannot be null.");
+
+            final T value = getOrNull(valueSupplier);
             if (null != value) {
                 return value;
             }
-        } catch (Exception exception) {
-            LOGGER.error("Value supplier call failed; calling default value supplier", exception);
         }
+        return null;
+    }
 
+    /**
+     * Call the given supplier and return its value. If the call fails, then report the exception
+     *   to the event sink and return {@code null}.
+     *
+     * @param valueSupplier The supplier to call to retrieve the value; must not be null
+     * @param <T> The type of the value returned by {@code valueSupplier}
+     * @return The value
+     */
+    private static <T> T getOrNull(Supplier<? extends T> valueSupplier) {
         try {
-            return defaultValueSupplier.get();
+            return valueSupplier.get();
         } catch (Exception exception) {
-            LOGGER.error("Default value supplier call failed", exception);
+            eventSink.onEvent(GettyEventSink.Event.SUPPLIER_FAILED, null, exception);
             return null;
         }
     }
@@ -407,8 +872,10 @@ public class Getty<T> {
      * <br/><br/>
      *
      * Caching is performed if the system property with the name set by the {@code CACHE_DETERMINER}
-     *   field of {@link Getty} is set to {@code true}. If you would like to decide whether to cache
-     *   or not, use {@link #uncached(Object)} or {@link #cached(Object)}.
+     *   field of {@link Getty} is set to {@code true}, and decided by the default
+     *   {@link AdaptiveCachePolicy} if it is set to {@code adaptive}. If you would like to decide
+     *   whether to cache or not, use {@link #uncached(Object)}, {@link #cached(Object)}, or
+     *   {@link #adaptive(Object)}.
      *
      * @param head The object to be held by the head {@link Getty} instance of this Getty chain
      * @param <T> The type of the object held by this {@link Getty} instance
@@ -418,7 +885,11 @@ public class Getty<T> {
      * @see #cached(Object)
      */
     public static <T> Getty<T> of(T head) {
-        return Boolean.getBoolean(CACHE_DETERMINER) ? cached(head) : uncached(head);
+        final String mode = System.getProperty(CACHE_DETERMINER);
+        if (ADAPTIVE_MODE.equalsIgnoreCase(mode)) {
+            return adaptive(head);
+        }
+        return Boolean.parseBoolean(mode) ? cached(head) : uncached(head);
     }
 
     /**
@@ -432,11 +903,15 @@ public class Getty<T> {
      */
     public static <T> Getty<T> uncached(T head) {
         Objects.requireNonNull(head, NULL_HEAD_ERROR);
-        return getUncachedInstance(head);
+        return getUncachedInstance(head, ChainContext.forChain(head));
     }
 
     /**
      * Begin a cached Getty chain and return the head {@link Getty} instance.
+     * <br/><br/>
+     *
+     * If a {@link GettyScope} is open on the current thread, then the chain is cached in that scope
+     *   instead of the global cache, and is released when the scope is closed.
      *
      * @param head The object to be held by the head {@link Getty} instance of this Getty chain
      * @param <T> The type of the object held by this {@link Getty} instance
@@ -446,6 +921,99 @@ public class Getty<T> {
      */
     public static <T> Getty<T> cached(T head) {
         Objects.requireNonNull(head, NULL_HEAD_ERROR);
-        return getCachedInstance(head, CACHE.computeIfAbsent(head, GettyChain::new));
+
+        final GettyChain chain = getChain(head);
+        if (head instanceof Versioned) {
+            chain.validate(((Versioned) head).getVersion());
+        }
+        return getCachedInstance(head, chain);
+    }
+
+    /**
+     * Begin a cached Getty chain on a mutable head and return the head {@link Getty} instance.
+     * <br/><br/>
+     *
+     * The cached {@link Getty} instances of the chain are only reused while {@code versionStamp}
+     *   returns the same value for {@code head}; when it changes, they are dropped and created
+     *   again from the current state of {@code head}. Heads implementing {@link Versioned} are
+     *   handled this way by {@link #cached(Object)} already.
+     *
+     * @param head The object to be held by the head {@link Getty} instance of this Getty chain
+     * @param versionStamp The function returning the current version of {@code head}; it should be
+     *   as cheap as a field read, since it is called every time the chain is started
+     * @param <T> The type of the object held by this {@link Getty} instance
+     * @return A {@link Getty} instance holding the given object
+     *
+     * @see Versioned
+     */
+    public static <T> Getty<T> cached(T head, ToLongFunction<? super T> versionStamp) {
+        Objects.requireNonNull(head, NULL_HEAD_ERROR);
+        Objects.requireNonNull(versionStamp, "The version stamp cannot be null.");
+
+        final GettyChain chain = getChain(head);
+        chain.validate(versionStamp.applyAsLong(head));
+        return getCachedInstance(head, chain);
+    }
+
+    /**
+     * Begin a Getty chain which is cached or uncached depending on the decision made by the default
+     *   {@link AdaptiveCachePolicy} for the type of {@code head}, and return the head {@link Getty}
+     *   instance.
+     *
+     * @param head The object to be held by the head {@link Getty} instance of this Getty chain
+     * @param <T> The type of the object held by this {@link Getty} instance
+     * @return A {@link Getty} instance holding the given object
+     *
+     * @see AdaptiveCachePolicy#getDefault()
+     */
+    public static <T> Getty<T> adaptive(T head) {
+        return adaptive(head, AdaptiveCachePolicy.getDefault());
+    }
+
+    /**
+     * Begin a Getty chain which is cached or uncached depending on the decision made by a given
+     *   {@link AdaptiveCachePolicy}, and return the head {@link Getty} instance.
+     *
+     * @param head The object to be held by the head {@link Getty} instance of this Getty chain
+     * @param policy The policy deciding whether to cache the chain
+     * @param <T> The type of the object held by this {@link Getty} instance
+     * @return A {@link Getty} instance holding the given object
+     */
+    public static <T> Getty<T> adaptive(T head, AdaptiveCachePolicy policy) {
+        Objects.requireNonNull(head, NULL_HEAD_ERROR);
+        return policy.shouldCache(head) ? cached(head) : uncached(head);
+    }
+
+    /**
+     * Begin an uncached Getty chain with a total time budget, and return the head {@link Getty}
+     *   instance.
+     * <br/><br/>
+     *
+     * Every link checks the remaining time before calling its getter. Once the budget is exhausted,
+     *   getters are no longer called; each link behaves as if its getter had thrown the shared
+     *   {@link DeadlineExceededException} instead, so its exception handler or default value
+     *   applies. For example:
+     * <pre>{@code
+     *   Address address = Getty.withDeadline(order, 50, TimeUnit.MILLISECONDS)
+     *       .get(Order::getCustomer)   // May lazily load from the database
+     *       .getOrDefault(Customer::getAddress, Address.UNKNOWN) // Address.UNKNOWN if out of time
+     *       .get();
+     * }</pre>
+     *
+     * A getter that is already running is not interrupted, so the time spent resolving a chain is
+     *   bounded by the budget plus the duration of a single getter call.
+     *
+     * @param head The object to be held by the head {@link Getty} instance of this Getty chain
+     * @param timeout The time budget of the chain, starting now
+     * @param unit The time unit of {@code timeout}
+     * @param <T> The type of the object held by this {@link Getty} instance
+     * @return A {@link Getty} instance holding the given object
+     */
+    public static <T> Getty<T> withDeadline(T head, long timeout, TimeUnit unit) {
+        Objects.requireNonNull(head, NULL_HEAD_ERROR);
+        return getUncachedInstance(
+            head,
+            ChainContext.withDeadline(head, System.nanoTime() + unit.toNanos(timeout))
+        );
     }
 }
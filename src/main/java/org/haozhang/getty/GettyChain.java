@@ -1,5 +1,6 @@
 package org.haozhang.getty;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -11,6 +12,14 @@ import java.util.concurrent.ConcurrentHashMap;
  *   used to start the chain.
  * <br/><br/>
  *
+ * Each chain is held by an owning cache, which is either the global cache in {@link Getty} or the
+ *   cache of the {@link GettyScope} the chain was started in.
+ * <br/><br/>
+ *
+ * If the head is mutable and exposes a version stamp (see {@link Versioned}), the chain remembers
+ *   the version its instances were created from and drops them all when the version changes.
+ * <br/><br/>
+ *
  * The constructor must not be called with a null value as there is no null-checking done by the
  *   other methods. As such, this class is limited to use within this package where this condition
  *   can be ensured.
@@ -21,13 +30,43 @@ class GettyChain extends ConcurrentHashMap<Object, Getty<?>> {
      */
     public final transient Object head;
 
+    /**
+     * The cache holding this Getty chain, from which it is removed when the chain ends
+     */
+    public final transient Map<Object, GettyChain> owner;
+
+    /**
+     * The version of the head which the {@link Getty} instances of this chain were created from
+     */
+    private transient volatile long version;
+
     /**
      * Construct a {@link GettyChain} instance with a given head for the chain.
      *
      * @param head The head of the Getty chain; must not be null
+     * @param owner The cache holding the Getty chain
      */
-    public GettyChain(Object head) {
+    public GettyChain(Object head, Map<Object, GettyChain> owner) {
         this.head = head;
+        this.owner = owner;
+    }
+
+    /**
+     * Drop the {@link Getty} instances of this chain if the head has changed since they were
+     *   created.
+     * <br/><br/>
+     *
+     * The instances are dropped before the new version is published, so that a thread which sees
+     *   the new version never reuses them. Threads which validate in the meantime still see the
+     *   old version and drop the instances themselves.
+     *
+     * @param current The current version of the head
+     */
+    void validate(long current) {
+        if (current != version) {
+            clear();
+            version = current;
+        }
     }
 
     // Use our own simplified method instead of the expensive one in ConcurrentHashMap.
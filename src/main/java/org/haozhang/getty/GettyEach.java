@@ -0,0 +1,251 @@
+package org.haozhang.getty;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * This class represents the collection-valued part of a Getty chain, started with
+ *   {@link Getty#getEach(Getter)} or {@link Getty#getEachOfArray(Getter)}.
+ * <br/><br/>
+ *
+ * Steps are lazy: nothing is evaluated until a terminal method ({@link #forEach(Consumer)} or
+ *   {@link #collect(Collector)}) is called, at which point each element is pushed through all of
+ *   the steps before the next one is read. No intermediate collections are created between steps.
+ * <br/><br/>
+ *
+ * Every step follows the conventions of {@link Getty}: a getter which throws an exception yields
+ *   {@code null} (or the value returned by its exception handler), and {@code null} values, as well
+ *   as {@code null} collections returned by {@link #flatGet(Getter)}, are skipped. Likewise, a
+ *   collection which throws while being iterated (such as a lazily loaded association) ends at
+ *   the failing element, and the exception is passed to the exception handler of its step, if
+ *   any. For example:
+ * <pre>{@code
+ *   List<String> skus = Getty.of(order)
+ *       .get(Order::getShipment)
+ *       .getEach(Shipment::getItems) // Skips null items
+ *       .get(Item::getSku)           // Skips items whose SKU is null or whose getter threw
+ *       .collect(Collectors.toList());
+ * }</pre>
+ *
+ * Unlike {@link Getty}, a {@link GettyEach} can be evaluated any number of times; each terminal
+ *   call re-reads the underlying collections.
+ *
+ * @param <E> The type of the elements
+ */
+public final class GettyEach<E> {
+    /**
+     * The step pushing the elements of this {@link GettyEach} into a given sink
+     */
+    private final Consumer<Consumer<? super E>> source;
+
+    GettyEach(Consumer<Consumer<? super E>> source) {
+        this.source = source;
+    }
+
+    //==============================================================================================
+    // Non-terminal Steps
+    //==============================================================================================
+
+    /**
+     * Return a {@link GettyEach} over the values returned by a given {@link Getter} for each
+     *   element.
+     *
+     * @param getter The getter to call with each element
+     * @param <R> The return type of {@code getter}
+     * @return A {@link GettyEach} over the non-{@code null} values returned by {@code getter}
+     */
+    public <R> GettyEach<R> get(Getter<E, R> getter) {
+        return get(getter, ExceptionHandlerFunction.returnNull());
+    }
+
+    /**
+     * Return a {@link GettyEach} over the values returned by a given {@link Getter} for each
+     *   element, using the value returned by a given {@link ExceptionHandlerFunction} when the
+     *   getter throws.
+     *
+     * @param getter The getter to call with each element
+     * @param exceptionHandler The handler to call if {@code getter} fails
+     * @param <R> The return type of {@code getter}
+     * @return A {@link GettyEach} over the non-{@code null} values returned by {@code getter} or
+     *   {@code exceptionHandler}
+     */
+    public <R> GettyEach<R> get(
+        Getter<E, R> getter,
+        ExceptionHandlerFunction<E, R> exceptionHandler
+    ) {
+        return new GettyEach<>(sink -> source.accept(element ->
+            push(apply(getter, element, exceptionHandler), sink)
+        ));
+    }
+
+    /**
+     * Return a {@link GettyEach} over the values returned by a given {@link Getter} for each
+     *   element, substituting {@code defaultValue} when the getter throws or returns {@code null}.
+     *
+     * @param getter The getter to call with each element
+     * @param defaultValue The value to use if the call to {@code getter} fails or returns
+     *   {@code null}
+     * @param <R> The return type of {@code getter}
+     * @return A {@link GettyEach} over the values returned by {@code getter} or
+     *   {@code defaultValue}
+     */
+    public <R> GettyEach<R> getOrDefault(Getter<E, R> getter, R defaultValue) {
+        return new GettyEach<>(sink -> source.accept(element -> {
+            final R value = apply(getter, element, ExceptionHandlerFunction.returnNull());
+            push(null != value ? value : defaultValue, sink);
+        }));
+    }
+
+    /**
+     * Return a {@link GettyEach} over the elements of the {@link Iterable} returned by a given
+     *   {@link Getter} for each element.
+     *
+     * @param getter The getter to call with each element
+     * @param <R> The type of the elements of the {@link Iterable} returned by {@code getter}
+     * @return A flattened {@link GettyEach}
+     */
+    public <R> GettyEach<R> flatGet(Getter<E, ? extends Iterable<R>> getter) {
+        return flatGet(getter, ExceptionHandlerConsumer.ignoreException());
+    }
+
+    /**
+     * Return a {@link GettyEach} over the elements of the {@link Iterable} returned by a given
+     *   {@link Getter} for each element, passing the exceptions thrown by {@code getter} or while
+     *   iterating its {@link Iterable} to a given {@link ExceptionHandlerConsumer}.
+     *
+     * @param getter The getter to call with each element
+     * @param exceptionHandler The handler to call if {@code getter} or the iteration fails
+     * @param <R> The type of the elements of the {@link Iterable} returned by {@code getter}
+     * @return A flattened {@link GettyEach}
+     */
+    public <R> GettyEach<R> flatGet(
+        Getter<E, ? extends Iterable<R>> getter,
+        ExceptionHandlerConsumer<E> exceptionHandler
+    ) {
+        return new GettyEach<>(sink -> source.accept(element -> pushAll(
+            apply(getter, element, exceptionHandler.toFunction()), sink, element, exceptionHandler
+        )));
+    }
+
+    /**
+     * Return a {@link GettyEach} over the elements of the array returned by a given
+     *   {@link Getter} for each element.
+     *
+     * @param getter The getter to call with each element
+     * @param <R> The type of the elements of the array returned by {@code getter}
+     * @return A flattened {@link GettyEach}
+     */
+    public <R> GettyEach<R> flatGetArray(Getter<E, R[]> getter) {
+        return new GettyEach<>(sink -> source.accept(element ->
+            pushAll(apply(getter, element, ExceptionHandlerFunction.returnNull()), sink)
+        ));
+    }
+
+    //==============================================================================================
+    // Terminal Steps
+    //==============================================================================================
+
+    /**
+     * Evaluate the steps and pass each resulting element to a given {@link Consumer}.
+     *
+     * @param consumer The consumer to receive the elements
+     */
+    public void forEach(Consumer<? super E> consumer) {
+        source.accept(Objects.requireNonNull(consumer));
+    }
+
+    /**
+     * Evaluate the steps and accumulate the resulting elements with a given {@link Collector}.
+     *
+     * @param collector The collector to accumulate the elements with
+     * @param <A> The type of the intermediate accumulation
+     * @param <R> The type of the result
+     * @return The result of {@code collector}
+     */
+    @SuppressWarnings("unchecked")
+    public <A, R> R collect(Collector<? super E, A, R> collector) {
+        final A container = collector.supplier().get();
+        final BiConsumer<A, ? super E> accumulator = collector.accumulator();
+        source.accept(element -> accumulator.accept(container, element));
+
+        return collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)
+            ? (R) container
+            : collector.finisher().apply(container);
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Call a given {@link Getter} with a given element, passing any exception to a given
+     *   {@link ExceptionHandlerFunction}.
+     */
+    private static <T, R> R apply(
+        Getter<T, R> getter,
+        T element,
+        ExceptionHandlerFunction<T, R> exceptionHandler
+    ) {
+        try {
+            return getter.apply(element);
+        } catch (Exception exception) {
+            return exceptionHandler.handleException(element, exception);
+        }
+    }
+
+    private static <T> void push(T element, Consumer<? super T> sink) {
+        if (null != element) {
+            sink.accept(element);
+        }
+    }
+
+    /**
+     * Push the elements of an {@link Iterable} into a given sink. If iterating fails, then the
+     *   exception is passed to a given {@link ExceptionHandlerConsumer} along with the object the
+     *   {@link Iterable} was obtained from, and the remaining elements are skipped. Exceptions
+     *   thrown by {@code sink} (that is, by later steps or the terminal consumer) are left alone.
+     */
+    static <S, T> void pushAll(
+        Iterable<T> elements,
+        Consumer<? super T> sink,
+        S owner,
+        ExceptionHandlerConsumer<? super S> exceptionHandler
+    ) {
+        if (null == elements) {
+            return;
+        }
+
+        final Iterator<T> iterator;
+        try {
+            iterator = elements.iterator();
+        } catch (Exception exception) {
+            exceptionHandler.handleException(owner, exception);
+            return;
+        }
+
+        while (true) {
+            final T element;
+            try {
+                if (!iterator.hasNext()) {
+                    return;
+                }
+                element = iterator.next();
+            } catch (Exception exception) {
+                exceptionHandler.handleException(owner, exception);
+                return;
+            }
+            push(element, sink);
+        }
+    }
+
+    static <T> void pushAll(T[] elements, Consumer<? super T> sink) {
+        if (null != elements) {
+            for (T element : elements) {
+                push(element, sink);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.haozhang.getty;
+
+/**
+ * This interface receives the diagnostic events of the Getty library, such as a chain being
+ *   removed from the cache or a supplier failing.
+ * <br/><br/>
+ *
+ * The Getty core does no logging of its own: events go to the sink installed with
+ *   {@link Getty#setEventSink(GettyEventSink)}, which is {@link #NONE} by default. To log them,
+ *   install a {@link Slf4jEventSink} (which requires SLF4J on the classpath), optionally wrapped in
+ *   an {@link AsyncEventSink} to move the logging work off of the calling threads:
+ * <pre>{@code
+ *   Getty.setEventSink(new AsyncEventSink(new Slf4jEventSink(), AsyncEventSink.DEFAULT_CAPACITY));
+ * }</pre>
+ *
+ * Sinks are called on the thread which raised the event, possibly concurrently, and must not throw.
+ */
+@FunctionalInterface
+public interface GettyEventSink {
+    /**
+     * The sink ignoring all events
+     */
+    GettyEventSink NONE = (event, subject, exception) -> { };
+
+    /**
+     * Receive an event.
+     *
+     * @param event The kind of the event
+     * @param subject The object the event is about (see {@link Event}); may be {@code null}
+     * @param exception The exception which caused the event, or {@code null}
+     */
+    void onEvent(Event event, Object subject, Throwable exception);
+
+    /**
+     * This enum represents the kinds of events raised by the Getty library.
+     */
+    enum Event {
+        /**
+         * A cached chain was ended and removed from its cache; the subject is the head of the chain
+         */
+        CHAIN_UNCACHED,
+
+        /**
+         * A value supplier passed to {@link Getty#get(java.util.function.Supplier)} or
+         *   {@link Getty#getOrDefault(java.util.function.Supplier, Object)} threw an exception
+         */
+        SUPPLIER_FAILED,
+
+        /**
+         * A default value supplier passed to
+         *   {@link Getty#getOrDefault(java.util.function.Supplier, java.util.function.Supplier)}
+         *   threw an exception
+         */
+        DEFAULT_SUPPLIER_FAILED,
+
+        /**
+         * An exception handler run by an {@link ExceptionHandlerDispatcher} threw an exception or
+         *   an error; the subject is the object which was passed to the handler
+         */
+        ASYNC_HANDLER_FAILED,
+
+        /**
+         * {@link ChainRegistry#warmUp(int)} completed; the subject is the list of its reports
+         */
+        CHAINS_WARMED_UP
+    }
+}
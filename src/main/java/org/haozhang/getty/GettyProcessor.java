@@ -0,0 +1,366 @@
+package org.haozhang.getty;
+
+import org.reactivestreams.Processor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class is a Reactive Streams {@link Processor} which applies a {@link Getter} (typically a
+ *   compiled chain such as one returned by {@link PropertyPath#compile(Class, String)}) to each
+ *   element of a stream.
+ * <br/><br/>
+ *
+ * Upstream elements are requested in batches of {@code batchSize}: the first batch is requested as
+ *   soon as both sides are subscribed, and the next {@code batchSize - batchSize / 4} elements are
+ *   requested each time that many have been consumed. At most about one batch of results is
+ *   buffered while downstream demand is exhausted, so the upstream never outpaces the downstream
+ *   by more than that.
+ * <br/><br/>
+ *
+ * An exception thrown by the {@link Getter} is passed to the {@link ExceptionHandlerFunction}
+ *   together with the element instead of cancelling the stream. Since Reactive Streams does not
+ *   allow {@code null} elements, elements for which the getter (or the exception handler) returns
+ *   {@code null} are dropped without consuming downstream demand. Only an exception thrown by the
+ *   exception handler itself cancels the upstream and fails the stream; errors are signalled to
+ *   the downstream immediately, discarding any buffered results.
+ * <br/><br/>
+ *
+ * On Java 9 and later, {@code org.reactivestreams.FlowAdapters.toFlowProcessor(processor)} exposes
+ *   an instance as a {@code java.util.concurrent.Flow.Processor}.
+ * <br/><br/>
+ *
+ * Like every {@link Processor}, an instance can be subscribed to a single upstream
+ *   {@link org.reactivestreams.Publisher} and serve a single downstream {@link Subscriber}.
+ *
+ * @param <T> The type of the upstream elements
+ * @param <R> The type of the downstream elements
+ */
+public final class GettyProcessor<T, R> implements Processor<T, R>, Subscription {
+    /**
+     * The default number of elements requested from the upstream at once
+     */
+    public static final int DEFAULT_BATCH_SIZE = 128;
+
+    /**
+     * Marker queued in place of dropped elements, so that their consumption is counted in order
+     */
+    private static final Object DROPPED = new Object();
+
+    private final Getter<? super T, ? extends R> getter;
+    private final ExceptionHandlerFunction<? super T, ? extends R> exceptionHandler;
+    private final int batchSize;
+    private final int replenishThreshold;
+
+    private final AtomicReference<Subscription> upstream = new AtomicReference<>();
+    private final AtomicReference<Subscriber<? super R>> downstream = new AtomicReference<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    /**
+     * The error to signal downstream; set before {@link #done}, and only by the first error
+     */
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    private volatile boolean subscribed;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+
+    /**
+     * The number of elements consumed since the upstream was last asked for more (only accessed
+     *   while draining)
+     */
+    private int consumed;
+
+    /**
+     * Create a {@link GettyProcessor}.
+     *
+     * @param getter The {@link Getter} to apply to each element
+     * @param exceptionHandler The {@link ExceptionHandlerFunction} to call when {@code getter}
+     *   throws an exception
+     * @param batchSize The number of elements requested from the upstream at once
+     */
+    public GettyProcessor(
+        Getter<? super T, ? extends R> getter,
+        ExceptionHandlerFunction<? super T, ? extends R> exceptionHandler,
+        int batchSize
+    ) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be positive.");
+        }
+
+        this.getter = Objects.requireNonNull(getter, "The getter cannot be null.");
+        this.exceptionHandler =
+            Objects.requireNonNull(exceptionHandler, "The exception handler cannot be null.");
+        this.batchSize = batchSize;
+        this.replenishThreshold = batchSize - (batchSize >> 2);
+    }
+
+    //==============================================================================================
+    // Factory Methods
+    //==============================================================================================
+
+    /**
+     * Return a {@link GettyProcessor} which drops the elements for which a given {@link Getter}
+     *   throws an exception.
+     *
+     * @param getter The {@link Getter} to apply to each element
+     * @param <T> The type of the upstream elements
+     * @param <R> The type of the downstream elements
+     * @return A new {@link GettyProcessor}
+     */
+    public static <T, R> GettyProcessor<T, R> of(Getter<? super T, ? extends R> getter) {
+        return of(getter, ExceptionHandlerFunction.returnNull());
+    }
+
+    /**
+     * Return a {@link GettyProcessor} using {@link #DEFAULT_BATCH_SIZE}.
+     *
+     * @param getter The {@link Getter} to apply to each element
+     * @param exceptionHandler The {@link ExceptionHandlerFunction} to call when {@code getter}
+     *   throws an exception
+     * @param <T> The type of the upstream elements
+     * @param <R> The type of the downstream elements
+     * @return A new {@link GettyProcessor}
+     */
+    public static <T, R> GettyProcessor<T, R> of(
+        Getter<? super T, ? extends R> getter,
+        ExceptionHandlerFunction<? super T, ? extends R> exceptionHandler
+    ) {
+        return new GettyProcessor<>(getter, exceptionHandler, DEFAULT_BATCH_SIZE);
+    }
+
+    //==============================================================================================
+    // Subscriber Methods (upstream)
+    //==============================================================================================
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        Objects.requireNonNull(subscription, "The subscription cannot be null.");
+        if (!upstream.compareAndSet(null, subscription)) {
+            subscription.cancel(); // Rule 2.5: a Subscriber must not have multiple subscriptions.
+            return;
+        }
+
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        start();
+    }
+
+    @Override
+    public void onNext(T element) {
+        Objects.requireNonNull(element, "The element cannot be null.");
+        if (done || cancelled) {
+            return;
+        }
+
+        R result;
+        try {
+            result = getter.apply(element);
+        } catch (Exception exception) {
+            try {
+                result = exceptionHandler.handleException(element, exception);
+            } catch (Throwable throwable) {
+                upstream.get().cancel();
+                onError(throwable);
+                return;
+            }
+        }
+
+        queue.offer(null == result ? DROPPED : result);
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable, "The error cannot be null.");
+        if (done) {
+            return;
+        }
+
+        error.compareAndSet(null, throwable);
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    //==============================================================================================
+    // Publisher Methods (downstream)
+    //==============================================================================================
+
+    @Override
+    public void subscribe(Subscriber<? super R> subscriber) {
+        Objects.requireNonNull(subscriber, "The subscriber cannot be null.");
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(EmptySubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException(
+                GettyProcessor.class.getSimpleName() + " only supports a single subscriber."
+            ));
+            return;
+        }
+
+        subscriber.onSubscribe(this);
+        subscribed = true; // Signals may only be delivered once onSubscribe() has returned.
+        start();
+        drain();
+    }
+
+    //==============================================================================================
+    // Subscription Methods (downstream)
+    //==============================================================================================
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            // Rule 3.9: fail the stream even if the upstream has already completed.
+            cancelUpstream();
+            error.compareAndSet(null, new IllegalArgumentException(
+                "The number of requested elements must be positive, but was " + n + "."
+            ));
+            done = true;
+            drain();
+            return;
+        }
+
+        long current;
+        long next;
+        do {
+            current = requested.get();
+            next = current + n < 0 ? Long.MAX_VALUE : current + n;
+        } while (!requested.compareAndSet(current, next));
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+
+        cancelled = true;
+        cancelUpstream();
+        if (0 == drainRequests.getAndIncrement()) {
+            queue.clear();
+        }
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Request the first batch from the upstream once both sides are subscribed.
+     */
+    private void start() {
+        final Subscription subscription = upstream.get();
+        if (null != subscription && subscribed && started.compareAndSet(false, true)) {
+            subscription.request(batchSize);
+        }
+    }
+
+    private void cancelUpstream() {
+        final Subscription subscription = upstream.get();
+        if (null != subscription) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Emit queued results while there is downstream demand. Only one thread drains at a time;
+     *   calls made while another thread is draining make it loop again instead.
+     */
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        if (0 != drainRequests.getAndIncrement()) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            final Subscriber<? super R> subscriber = downstream.get();
+            if (null != subscriber && subscribed) {
+                final long demand = requested.get();
+                long emitted = 0;
+
+                while (true) {
+                    if (cancelled) {
+                        queue.clear();
+                        return;
+                    }
+
+                    final boolean terminated = done;
+                    final Throwable failure = terminated ? error.get() : null;
+                    if (null != failure) {
+                        cancelled = true; // Errors skip the queued results.
+                        queue.clear();
+                        subscriber.onError(failure);
+                        return;
+                    }
+
+                    final Object next = queue.peek();
+                    if (null == next) {
+                        if (terminated) {
+                            cancelled = true; // No further signals once terminated
+                            subscriber.onComplete();
+                            return;
+                        }
+                        break;
+                    }
+
+                    if (DROPPED != next) {
+                        if (emitted == demand) {
+                            break;
+                        }
+                        subscriber.onNext((R) next);
+                        emitted++;
+                    }
+                    queue.poll();
+
+                    if (++consumed == replenishThreshold) {
+                        consumed = 0;
+                        if (!done) {
+                            upstream.get().request(replenishThreshold);
+                        }
+                    }
+                }
+
+                if (0 != emitted && Long.MAX_VALUE != demand) {
+                    requested.addAndGet(-emitted);
+                }
+            }
+
+            missed = drainRequests.addAndGet(-missed);
+        } while (0 != missed);
+    }
+
+    /**
+     * This class is the {@link Subscription} given to rejected subscribers.
+     */
+    private static final class EmptySubscription implements Subscription {
+        private static final EmptySubscription INSTANCE = new EmptySubscription();
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
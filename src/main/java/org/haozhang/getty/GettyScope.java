@@ -0,0 +1,174 @@
+package org.haozhang.getty;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class represents a unit of work (such as a request) owning all of the cached Getty chains
+ *   started within it.
+ * <br/><br/>
+ *
+ * While a scope is open on a thread, {@link Getty#cached(Object)} (and {@link Getty#of(Object)}
+ *   when caching is enabled) stores new chains in the scope's own cache instead of the global one.
+ *   Closing the scope drops that cache as a whole, so chains which were never ended with
+ *   {@link Getty#get()} are released in constant time, without touching any shared map:
+ * <pre>{@code
+ *   try (GettyScope scope = GettyScope.open()) {
+ *       Getty.cached(request).get(Request::getSession).getAndCache();
+ *       ...
+ *   } // Every chain cached above is released here.
+ * }</pre>
+ *
+ * Scopes can be nested; closing a scope restores the scope that was open before it. To carry a
+ *   scope to tasks running on other threads (e.g. an executor), use {@link #wrap(Runnable)} or
+ *   {@link #wrap(Callable)}. Once a scope is closed, chains started in it are cached globally.
+ */
+public final class GettyScope implements AutoCloseable {
+    /**
+     * The scope open on each thread, if any
+     */
+    private static final ThreadLocal<GettyScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The scope that was open on the opening thread before this one
+     */
+    private final GettyScope previous;
+
+    /**
+     * The cache owning the chains started in this scope; {@code null} once this scope is closed
+     */
+    private volatile Map<Object, GettyChain> chains = new ConcurrentHashMap<>();
+
+    private GettyScope(GettyScope previous) {
+        this.previous = previous;
+    }
+
+    //==============================================================================================
+    // Factory Methods
+    //==============================================================================================
+
+    /**
+     * Open a new {@link GettyScope} on the current thread. It must be closed on the same thread,
+     *   preferably with a try-with-resources statement.
+     *
+     * @return The new {@link GettyScope}
+     */
+    public static GettyScope open() {
+        final GettyScope scope = new GettyScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    //==============================================================================================
+    // Public Methods
+    //==============================================================================================
+
+    /**
+     * @return Whether this scope has not been closed yet
+     */
+    public boolean isOpen() {
+        return null != chains;
+    }
+
+    /**
+     * @return The number of Getty chains currently cached in this scope
+     */
+    public int getChainCount() {
+        final Map<Object, GettyChain> current = chains;
+        return null != current ? current.size() : 0;
+    }
+
+    /**
+     * Return a {@link Runnable} which runs a given {@link Runnable} with this scope open on the
+     *   executing thread.
+     *
+     * @param task The task to run within this scope
+     * @return The wrapped task
+     */
+    public Runnable wrap(Runnable task) {
+        Objects.requireNonNull(task, "The task cannot be null.");
+        return () -> {
+            final GettyScope outer = enter();
+            try {
+                task.run();
+            } finally {
+                exit(outer);
+            }
+        };
+    }
+
+    /**
+     * Return a {@link Callable} which calls a given {@link Callable} with this scope open on the
+     *   executing thread.
+     *
+     * @param task The task to call within this scope
+     * @param <V> The result type of {@code task}
+     * @return The wrapped task
+     */
+    public <V> Callable<V> wrap(Callable<V> task) {
+        Objects.requireNonNull(task, "The task cannot be null.");
+        return () -> {
+            final GettyScope outer = enter();
+            try {
+                return task.call();
+            } finally {
+                exit(outer);
+            }
+        };
+    }
+
+    /**
+     * Close this scope, releasing all of the Getty chains cached in it, and restore the scope that
+     *   was open before it.
+     */
+    @Override
+    public void close() {
+        chains = null;
+        if (this == CURRENT.get()) {
+            exit(previous);
+        }
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Return the Getty chain for a given head in the scope open on the current thread.
+     *
+     * @param head The head of the Getty chain
+     * @return The Getty chain, or {@code null} if no scope is open
+     */
+    static GettyChain getChain(Object head) {
+        final GettyScope scope = CURRENT.get();
+        if (null == scope) {
+            return null;
+        }
+
+        final Map<Object, GettyChain> owner = scope.chains;
+        if (null == owner) {
+            return null;
+        }
+
+        final GettyChain chain = owner.get(head);
+        return null != chain
+            ? chain
+            : owner.computeIfAbsent(head, key -> new GettyChain(key, owner));
+    }
+
+    private GettyScope enter() {
+        final GettyScope outer = CURRENT.get();
+        CURRENT.set(this);
+        return outer;
+    }
+
+    private static void exit(GettyScope outer) {
+        if (null != outer) {
+            CURRENT.set(outer);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
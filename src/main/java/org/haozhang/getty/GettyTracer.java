@@ -0,0 +1,365 @@
+package org.haozhang.getty;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class captures traces of sampled Getty chain executions to diagnose unexpected fallbacks
+ *   (e.g. {@link Getty#getOrDefault(Getter, Object)} returning its default value too often).
+ * <br/><br/>
+ *
+ * For one in every {@code samplePeriod} uncached chains, each link records the type of its input,
+ *   the outcome of its getter (a value, {@code null}, or the class of the exception thrown) and its
+ *   duration. Completed traces are written to a fixed-size, lock-free ring buffer, which keeps the
+ *   most recent {@code capacity} traces and can be read with {@link #getTraces()} or through JMX
+ *   (see {@link GettyTracerMXBean}). The default tracer is only exposed over JMX once
+ *   {@link #registerMBean()} is called; call {@link #unregisterMBean()} when the application is
+ *   undeployed, so that the MBean server does not keep its class loader reachable.
+ * <br/><br/>
+ *
+ * Sampling is disabled by default; enable it with {@link #setSamplePeriod(int)}, the JMX attribute
+ *   of the same name, or the {@code org.haozhang.getty.trace.period} system property. While it is
+ *   disabled, chains only read the sample period. Otherwise, unsampled chains also draw a
+ *   thread-local random number, so that concurrent chains never write to shared state.
+ * <br/><br/>
+ *
+ * Cached chains are shared between executions and are not traced. A trace is published by the
+ *   terminal call ({@link Getty#get()}, {@link Getty#getAndCache()}, or {@link Getty#getEach}) of
+ *   its chain.
+ */
+public final class GettyTracer implements GettyTracerMXBean {
+    /**
+     * The system property holding the initial sample period of the default {@link GettyTracer}
+     */
+    public static final String PERIOD_PROPERTY =
+        GettyTracer.class.getPackage().getName() + ".trace.period";
+
+    /**
+     * The number of traces kept by the default {@link GettyTracer}
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * The name under which the default {@link GettyTracer} is registered with the platform MBean
+     *   server by {@link #registerMBean()}
+     */
+    public static final String OBJECT_NAME =
+        GettyTracer.class.getPackage().getName() + ":type=GettyTracer";
+
+    //==============================================================================================
+    // Instance-related
+    //==============================================================================================
+
+    /**
+     * The ring buffer holding the most recent traces; its length is a power of two
+     */
+    private final AtomicReferenceArray<Trace> traces;
+
+    /**
+     * The total number of traces written, the low bits of which index the next slot of
+     *   {@link #traces}
+     */
+    private final AtomicLong written = new AtomicLong();
+
+    /**
+     * One in every {@code samplePeriod} chains is traced; {@code 0} disables tracing
+     */
+    private volatile int samplePeriod;
+
+    GettyTracer(int capacity, int samplePeriod) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+
+        // Round the capacity up to a power of two, so that slots can be indexed with a mask.
+        this.traces = new AtomicReferenceArray<>(
+            1 == capacity ? 1 : Integer.highestOneBit(capacity - 1) << 1
+        );
+        setSamplePeriod(samplePeriod);
+    }
+
+    //==============================================================================================
+    // Public Methods
+    //==============================================================================================
+
+    @Override
+    public int getSamplePeriod() {
+        return samplePeriod;
+    }
+
+    @Override
+    public void setSamplePeriod(int samplePeriod) {
+        if (samplePeriod < 0) {
+            throw new IllegalArgumentException("The sample period cannot be negative.");
+        }
+
+        this.samplePeriod = samplePeriod;
+    }
+
+    @Override
+    public long getTraceCount() {
+        return written.get();
+    }
+
+    /**
+     * Return the traces currently held by the ring buffer, oldest first.
+     *
+     * @return A snapshot of the recent traces
+     */
+    public List<Trace> getTraces() {
+        final long end = written.get();
+        final long start = Math.max(0, end - traces.length());
+
+        final List<Trace> result = new ArrayList<>((int) (end - start));
+        for (long index = start; index < end; index++) {
+            final Trace trace = traces.get((int) (index & (traces.length() - 1)));
+            if (null != trace) {
+                result.add(trace);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public String[] dumpTraces() {
+        return getTraces().stream().map(Trace::toString).toArray(String[]::new);
+    }
+
+    @Override
+    public void clear() {
+        for (int index = 0; index < traces.length(); index++) {
+            traces.set(index, null);
+        }
+    }
+
+    //==============================================================================================
+    // Package-private Methods
+    //==============================================================================================
+
+    /**
+     * Decide whether to trace a new chain.
+     *
+     * @param head The head of the chain
+     * @return A {@link Recorder} for the chain, or {@code null} if it is not sampled
+     */
+    Recorder sample(Object head) {
+        final int period = samplePeriod;
+        if (0 == period || (1 != period && 0 != ThreadLocalRandom.current().nextInt(period))) {
+            return null;
+        }
+        return new Recorder(head);
+    }
+
+    private void publish(Trace trace) {
+        final long index = written.getAndIncrement();
+        traces.set((int) (index & (traces.length() - 1)), trace);
+    }
+
+    //==============================================================================================
+    // Factory Methods
+    //==============================================================================================
+
+    /**
+     * @return The {@link GettyTracer} used by Getty chains
+     */
+    public static GettyTracer getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Register the default {@link GettyTracer} with the platform MBean server as
+     *   {@link #OBJECT_NAME}.
+     *
+     * @throws IllegalStateException If the tracer cannot be registered, such as when another copy
+     *   of Getty has registered its tracer already
+     */
+    public static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                getDefault(), new ObjectName(OBJECT_NAME)
+            );
+        } catch (JMException exception) {
+            throw new IllegalStateException(
+                "Cannot register the tracer as " + OBJECT_NAME, exception
+            );
+        }
+    }
+
+    /**
+     * Unregister the MBean registered as {@link #OBJECT_NAME} from the platform MBean server, if
+     *   any.
+     *
+     * @throws IllegalStateException If the MBean cannot be unregistered
+     */
+    public static void unregisterMBean() {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException exception) {
+            throw new IllegalStateException("Cannot unregister " + OBJECT_NAME, exception);
+        }
+    }
+
+    //==============================================================================================
+    // Inner Classes
+    //==============================================================================================
+
+    /**
+     * This enum represents the outcome of a single link.
+     */
+    public enum Outcome {
+        VALUE, NULL, EXCEPTION
+    }
+
+    /**
+     * This class holds a single link of a {@link Trace}.
+     */
+    public static final class Link {
+        private final Class<?> inputType;
+        private final Outcome outcome;
+        private final Class<?> exceptionType;
+        private final long nanos;
+
+        private Link(Class<?> inputType, Outcome outcome, Class<?> exceptionType, long nanos) {
+            this.inputType = inputType;
+            this.outcome = outcome;
+            this.exceptionType = exceptionType;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return The type of the object the getter was called with, or {@code null}
+         */
+        public Class<?> getInputType() {
+            return inputType;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @return The type of the exception thrown by the getter, if the outcome is
+         *   {@link Outcome#EXCEPTION}
+         */
+        public Class<?> getExceptionType() {
+            return exceptionType;
+        }
+
+        /**
+         * @return The duration of the getter call, in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return (null != inputType ? inputType.getSimpleName() : "null") + " -> "
+                + (Outcome.EXCEPTION == outcome ? exceptionType.getSimpleName() : outcome.name())
+                + " (" + nanos + "ns)";
+        }
+    }
+
+    /**
+     * This class holds the trace of a single chain execution.
+     */
+    public static final class Trace {
+        private final Class<?> headType;
+        private final long timestamp;
+        private final long durationNanos;
+        private final List<Link> links;
+
+        private Trace(Class<?> headType, long timestamp, long durationNanos, List<Link> links) {
+            this.headType = headType;
+            this.timestamp = timestamp;
+            this.durationNanos = durationNanos;
+            this.links = links;
+        }
+
+        public Class<?> getHeadType() {
+            return headType;
+        }
+
+        /**
+         * @return The time at which the chain started, in milliseconds since the epoch
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return The time between the start of the chain and its terminal call, in nanoseconds
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return The links of the chain, in order
+         */
+        public List<Link> getLinks() {
+            return links;
+        }
+
+        @Override
+        public String toString() {
+            return headType.getName() + " @" + timestamp + " (" + durationNanos + "ns): " + links;
+        }
+    }
+
+    /**
+     * This class collects the links of a sampled chain until its terminal call.
+     */
+    final class Recorder {
+        private final Class<?> headType;
+        private final long timestamp = System.currentTimeMillis();
+        private final long start = System.nanoTime();
+        private final List<Link> links = new ArrayList<>();
+
+        private Class<?> inputType;
+        private long linkStart;
+
+        private Recorder(Object head) {
+            this.headType = head.getClass();
+        }
+
+        void beforeLink(Object input) {
+            inputType = null != input ? input.getClass() : null;
+            linkStart = System.nanoTime();
+        }
+
+        void afterLink(Object value) {
+            final Outcome outcome = null != value ? Outcome.VALUE : Outcome.NULL;
+            links.add(new Link(inputType, outcome, null, System.nanoTime() - linkStart));
+        }
+
+        void linkFailed(Exception exception) {
+            links.add(new Link(
+                inputType, Outcome.EXCEPTION, exception.getClass(), System.nanoTime() - linkStart
+            ));
+        }
+
+        void finish() {
+            publish(new Trace(
+                headType, timestamp, System.nanoTime() - start, Collections.unmodifiableList(links)
+            ));
+        }
+    }
+
+    private static final class DefaultHolder {
+        private static final GettyTracer INSTANCE =
+            new GettyTracer(DEFAULT_CAPACITY, Integer.getInteger(PERIOD_PROPERTY, 0));
+    }
+}
@@ -0,0 +1,34 @@
+package org.haozhang.getty;
+
+/**
+ * This interface exposes the default {@link GettyTracer} through JMX, under
+ *   {@link GettyTracer#OBJECT_NAME}, once {@link GettyTracer#registerMBean()} is called.
+ */
+public interface GettyTracerMXBean {
+    /**
+     * @return The number of chains per traced chain; {@code 0} if tracing is disabled
+     */
+    int getSamplePeriod();
+
+    /**
+     * Trace one in every {@code samplePeriod} chains.
+     *
+     * @param samplePeriod The number of chains per traced chain; {@code 0} to disable tracing
+     */
+    void setSamplePeriod(int samplePeriod);
+
+    /**
+     * @return The total number of traces captured so far
+     */
+    long getTraceCount();
+
+    /**
+     * @return The traces currently held by the ring buffer, oldest first, one per line
+     */
+    String[] dumpTraces();
+
+    /**
+     * Remove all of the traces from the ring buffer.
+     */
+    void clear();
+}
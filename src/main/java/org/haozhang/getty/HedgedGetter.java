@@ -0,0 +1,329 @@
+package org.haozhang.getty;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * This class wraps a slow but idempotent {@link Getter} (such as a lazy-loaded association backed
+ *   by a remote store) with hedged execution, to cut its tail latency.
+ * <br/><br/>
+ *
+ * The getter is called on an {@link Executor}. If this primary attempt has not completed within
+ *   the hedging delay, a backup attempt is started on the same executor and the first value to
+ *   arrive is returned; the backup attempt is cancelled if it has not started yet, and any losing
+ *   attempt is ignored otherwise. A primary attempt which fails before the delay is backed up
+ *   right away. Only if both attempts fail does the call throw (the primary attempt's exception),
+ *   so the exception handler or default value of the surrounding {@link Getty} link only applies
+ *   when both attempts fail.
+ * <br/><br/>
+ *
+ * The hedging delay is either fixed, or tracks a given percentile of the primary attempts'
+ *   latencies (starting from an initial delay until enough of them have been measured). To keep
+ *   hedging from amplifying the load on an already struggling store, backups are limited by a
+ *   budget: at most {@code budget} backups per call on average, with small bursts allowed. Once the
+ *   budget is spent, calls simply wait for their primary attempt. See below for an example usage:
+ * <pre>{@code
+ *   Getter<Order, Customer> getCustomer = Order::getCustomer;
+ *   Getter<Order, Customer> hedged = getCustomer.withHedging(executor, 0.95, 20, MILLISECONDS);
+ *
+ *   Customer customer = Getty.of(order).getOrDefault(hedged, Customer.UNKNOWN).get();
+ * }</pre>
+ *
+ * All state is kept in atomic counters, so a single instance can be shared across threads and
+ *   Getty chains.
+ *
+ * @param <T> The type of the object the getter method will be called with
+ * @param <R> The type of the object returned by the getter method
+ *
+ * @see Getter#withHedging(Executor, long, TimeUnit)
+ * @see Getter#withHedging(Executor, double, long, TimeUnit)
+ */
+public class HedgedGetter<T, R> implements Getter<T, R> {
+    /**
+     * The default maximum number of backup attempts per call
+     */
+    public static final double DEFAULT_BUDGET = 0.05;
+
+    /**
+     * The number of backup attempts which may be made in a burst
+     */
+    private static final int BURST = 10;
+
+    /**
+     * The number of budget units making up one backup attempt
+     */
+    private static final long UNITS_PER_HEDGE = 1_000;
+
+    /**
+     * The number of primary latencies measured before an adaptive delay replaces the initial one
+     */
+    private static final int MIN_SAMPLES = 100;
+
+    /**
+     * The number of primary latencies recorded between two recomputations of an adaptive delay
+     */
+    private static final int RECOMPUTE_PERIOD = 64;
+
+    /**
+     * The number of latency samples above which the histogram is halved, to follow changes
+     */
+    private static final long DECAY_THRESHOLD = 1 << 16;
+
+    //==============================================================================================
+    // Instance-related
+    //==============================================================================================
+
+    /**
+     * The getter to hedge
+     */
+    private final Getter<T, R> getter;
+
+    /**
+     * The executor running the attempts
+     */
+    private final Executor executor;
+
+    /**
+     * The percentile of primary latencies used as the delay, or {@code 0} for a fixed delay
+     */
+    private final double percentile;
+
+    /**
+     * The budget units earned per call
+     */
+    private final long creditPerCall;
+
+    /**
+     * The budget units currently available, capped at {@link #BURST} backup attempts
+     */
+    private final AtomicLong tokens = new AtomicLong(BURST * UNITS_PER_HEDGE);
+
+    /**
+     * The number of primary latencies whose highest set bit (in microseconds) is each index
+     */
+    private final AtomicLongArray latencies = new AtomicLongArray(Long.SIZE);
+
+    /**
+     * The number of backup attempts started
+     */
+    private final LongAdder hedges = new LongAdder();
+
+    /**
+     * The current hedging delay, in nanoseconds
+     */
+    private volatile long delayNanos;
+
+    /**
+     * The number of latencies left to record before the adaptive delay is recomputed; deliberately
+     *   not atomic
+     */
+    private int countdown = RECOMPUTE_PERIOD;
+
+    /**
+     * Construct an instance of {@link HedgedGetter}.
+     *
+     * @param getter The idempotent getter to hedge
+     * @param executor The executor to run the attempts on
+     * @param percentile The percentile (in {@code (0, 1)}) of primary latencies to use as the
+     *   delay, or {@code 0} to always use {@code delay}
+     * @param delay The fixed or initial hedging delay
+     * @param unit The time unit of {@code delay}
+     * @param budget The maximum average number of backup attempts per call, in {@code [0, 1]}
+     */
+    public HedgedGetter(
+        Getter<T, R> getter,
+        Executor executor,
+        double percentile,
+        long delay,
+        TimeUnit unit,
+        double budget
+    ) {
+        if (percentile < 0 || percentile >= 1) {
+            throw new IllegalArgumentException(
+                "The percentile must be within [0, 1): " + percentile
+            );
+        }
+        if (budget < 0 || budget > 1) {
+            throw new IllegalArgumentException("The budget must be within [0, 1]: " + budget);
+        }
+
+        this.getter = Objects.requireNonNull(getter, "The getter cannot be null.");
+        this.executor = Objects.requireNonNull(executor, "The executor cannot be null.");
+        this.percentile = percentile;
+        this.delayNanos = unit.toNanos(delay);
+        this.creditPerCall = Math.round(budget * UNITS_PER_HEDGE);
+    }
+
+    @Override
+    public R apply(T object) {
+        earnCredit();
+
+        final long start = System.nanoTime();
+        final CompletableFuture<R> primary = attempt(object);
+        if (0 != percentile) {
+            primary.whenComplete((value, exception) -> {
+                if (null == exception) {
+                    recordLatency(System.nanoTime() - start);
+                }
+            });
+        }
+
+        try {
+            return primary.get(delayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException exception) {
+            // The primary attempt is slow or has failed; back it up if the budget allows it.
+        } catch (InterruptedException exception) {
+            primary.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the getter.");
+        }
+
+        if (!spendCredit()) {
+            return await(primary);
+        }
+
+        hedges.increment();
+        final CompletableFuture<R> backup = attempt(object);
+        final CompletableFuture<R> winner = new CompletableFuture<>();
+        final AtomicInteger failures = new AtomicInteger();
+        final BiConsumer<R, Throwable> race = (value, exception) -> {
+            if (null == exception) {
+                winner.complete(value);
+            } else if (2 == failures.incrementAndGet()) {
+                // Both attempts have failed, so the primary one has completed already.
+                primary.whenComplete((ignored, primaryException) ->
+                    winner.completeExceptionally(primaryException)
+                );
+            }
+        };
+        primary.whenComplete(race);
+        backup.whenComplete(race);
+
+        // The primary attempt is left running so that its latency is still recorded.
+        return await(winner, backup);
+    }
+
+    /**
+     * @return The number of backup attempts started so far
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * Return the current hedging delay.
+     *
+     * @param unit The time unit of the returned delay
+     * @return The current hedging delay
+     */
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    private CompletableFuture<R> attempt(T object) {
+        return CompletableFuture.supplyAsync(() -> getter.apply(object), executor);
+    }
+
+    /**
+     * Wait for a future and cancel the given attempts, which is a no-op for attempts which have
+     *   completed or started already.
+     *
+     * @return The value of {@code future}
+     */
+    @SafeVarargs
+    private static <R> R await(CompletableFuture<R> future, CompletableFuture<R>... attempts) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw exception;
+        } finally {
+            for (CompletableFuture<R> attempt : attempts) {
+                attempt.cancel(false);
+            }
+        }
+    }
+
+    private void earnCredit() {
+        if (0 != creditPerCall && tokens.get() < BURST * UNITS_PER_HEDGE) {
+            tokens.getAndUpdate(current ->
+                Math.min(BURST * UNITS_PER_HEDGE, current + creditPerCall)
+            );
+        }
+    }
+
+    private boolean spendCredit() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < UNITS_PER_HEDGE) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - UNITS_PER_HEDGE));
+        return true;
+    }
+
+    /**
+     * Record the latency of a successful primary attempt, and periodically recompute the adaptive
+     *   delay.
+     */
+    private void recordLatency(long nanos) {
+        final long micros = Math.max(1, nanos / 1_000);
+        latencies.incrementAndGet(Long.SIZE - 1 - Long.numberOfLeadingZeros(micros));
+        if (--countdown <= 0) {
+            countdown = RECOMPUTE_PERIOD;
+            recomputeDelay();
+        }
+    }
+
+    /**
+     * Set the delay to the upper bound of the latency bucket holding the configured percentile.
+     *   Latencies are bucketed by powers of two of microseconds, so the delay errs on the high side
+     *   by up to a factor of two.
+     */
+    private void recomputeDelay() {
+        long total = 0;
+        for (int bucket = 0; bucket < Long.SIZE; bucket++) {
+            total += latencies.get(bucket);
+        }
+        if (total < MIN_SAMPLES) {
+            return;
+        }
+
+        final long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int bucket = 0; bucket < Long.SIZE; bucket++) {
+            seen += latencies.get(bucket);
+            if (seen >= rank) {
+                delayNanos = TimeUnit.MICROSECONDS.toNanos(2L << bucket);
+                break;
+            }
+        }
+
+        if (total > DECAY_THRESHOLD) {
+            for (int bucket = 0; bucket < Long.SIZE; bucket++) {
+                latencies.set(bucket, latencies.get(bucket) / 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package org.haozhang.getty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class compiles string path expressions over trees of {@link Map}s, {@link List}s, and
+ *   arrays (such as deserialized JSON) into reusable {@link Getter}s.
+ * <br/><br/>
+ *
+ * A path consists of segments separated by dots. Each segment is either a map key
+ *   ({@code customer}), a quoted map key for keys containing special characters
+ *   ({@code ['first.name']}), or a list or array index ({@code [0]}). For example:
+ * <pre>{@code
+ *   Getter<Map<String, Object>, Object> zip = MapPath.compile("orders[0].customer.address.zip");
+ *
+ *   Object value = Getty.of(json).getOrDefault(zip, "00000").get();
+ * }</pre>
+ *
+ * Paths are parsed once; evaluating a compiled path does no string parsing or splitting. A missing
+ *   key, an out-of-range index, or a segment applied to a value of the wrong shape yields
+ *   {@code null}, which short-circuits the rest of the path and can then be replaced by the
+ *   surrounding Getty link's default value.
+ * <br/><br/>
+ *
+ * Compiled paths are kept in a bounded cache keyed by their expression, so {@link #compile(String)}
+ *   can be called on the request path.
+ */
+public final class MapPath {
+    /**
+     * The maximum number of compiled paths kept in {@link #CACHE}
+     */
+    static final int MAX_CACHED_PATHS = 1024;
+
+    /**
+     * The cache holding compiled paths by their expression
+     */
+    private static final Map<String, Getter<?, ?>> CACHE = new ConcurrentHashMap<>();
+
+    private MapPath() {
+    }
+
+    /**
+     * Return the compiled {@link Getter} for a given path expression, compiling it if it is not
+     *   cached yet.
+     *
+     * @param expression The path expression
+     * @param <T> The type of the object the path is evaluated against
+     * @param <R> The type of the object at the end of the path
+     * @return A {@link Getter} evaluating the path
+     * @throws IllegalArgumentException If the expression is malformed
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R> Getter<T, R> compile(String expression) {
+        Objects.requireNonNull(expression, "The path expression cannot be null.");
+
+        final Getter<?, ?> cached = CACHE.get(expression);
+        if (null != cached) {
+            return (Getter<T, R>) cached;
+        }
+
+        final Getter<T, R> path = parse(expression);
+        if (CACHE.size() >= MAX_CACHED_PATHS) {
+            // Start over rather than tracking recency; hot paths are re-cached on their next use.
+            CACHE.clear();
+        }
+        CACHE.put(expression, path);
+        return path;
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Parse a path expression into a {@link CompiledPath}.
+     *
+     * @param expression The path expression
+     * @param <T> The type of the object the path is evaluated against
+     * @param <R> The type of the object at the end of the path
+     * @return The compiled path
+     */
+    @SuppressWarnings("unchecked")
+    private static <T, R> Getter<T, R> parse(String expression) {
+        final List<Getter<Object, Object>> steps = new ArrayList<>();
+        final int length = expression.length();
+        int position = 0;
+
+        while (position < length) {
+            final char current = expression.charAt(position);
+
+            if ('[' == current) {
+                // Look for the closing bracket after the closing quote so that quoted keys can
+                //   contain brackets themselves.
+                final int quote = position + 1 < length ? expression.charAt(position + 1) : -1;
+                final int close = '\'' == quote || '"' == quote
+                    ? expression.indexOf(quote, position + 2)
+                    : position;
+                final int end = close < 0 ? -1 : expression.indexOf(']', close);
+                if (end < 0) {
+                    throw error(expression, position, "unclosed '['");
+                }
+                steps.add(bracketStep(expression, position + 1, end));
+                position = end + 1;
+            } else {
+                int end = position;
+                while (end < length
+                    && '.' != expression.charAt(end)
+                    && '[' != expression.charAt(end)) {
+                    end++;
+                }
+                if (end == position) {
+                    throw error(expression, position, "empty key");
+                }
+                steps.add(keyStep(expression.substring(position, end)));
+                position = end;
+            }
+
+            if (position < length && '.' == expression.charAt(position)) {
+                if (++position == length) {
+                    throw error(expression, position, "trailing '.'");
+                }
+            } else if (position < length && '[' != expression.charAt(position)) {
+                throw error(expression, position, "expected '.' or '['");
+            }
+        }
+
+        if (steps.isEmpty()) {
+            throw error(expression, 0, "empty path");
+        }
+        return new CompiledPath<>(expression, steps.toArray(new Getter[0]));
+    }
+
+    /**
+     * Return the step for the contents of a bracketed segment, which is either a quoted key or an
+     *   index.
+     *
+     * @param expression The path expression
+     * @param start The start of the contents (after the '[')
+     * @param end The end of the contents (at the ']')
+     * @return The step for the segment
+     */
+    private static Getter<Object, Object> bracketStep(String expression, int start, int end) {
+        final String contents = expression.substring(start, end);
+
+        if (contents.length() >= 2
+            && ('\'' == contents.charAt(0) || '"' == contents.charAt(0))
+            && contents.charAt(contents.length() - 1) == contents.charAt(0)) {
+            return keyStep(contents.substring(1, contents.length() - 1));
+        }
+
+        final int index;
+        try {
+            index = Integer.parseInt(contents);
+        } catch (NumberFormatException exception) {
+            throw error(expression, start, "expected an index or a quoted key");
+        }
+        if (index < 0) {
+            throw error(expression, start, "negative index");
+        }
+        return indexStep(index);
+    }
+
+    /**
+     * Return a step which looks up a key in a {@link Map}.
+     *
+     * @param key The key to look up
+     * @return A step returning the value for {@code key}, or {@code null} if the value is not a map
+     */
+    private static Getter<Object, Object> keyStep(String key) {
+        return value -> value instanceof Map ? ((Map<?, ?>) value).get(key) : null;
+    }
+
+    /**
+     * Return a step which looks up an index in a {@link List} or an array.
+     *
+     * @param index The index to look up
+     * @return A step returning the element at {@code index}, or {@code null} if the index is out of
+     *   range or the value is neither a list nor an array
+     */
+    private static Getter<Object, Object> indexStep(int index) {
+        return value -> {
+            if (value instanceof List) {
+                final List<?> list = (List<?>) value;
+                return index < list.size() ? list.get(index) : null;
+            }
+            if (value instanceof Object[]) {
+                final Object[] array = (Object[]) value;
+                return index < array.length ? array[index] : null;
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Return an exception describing a malformed path expression.
+     *
+     * @param expression The path expression
+     * @param position The position of the error
+     * @param message The description of the error
+     * @return An exception describing the error
+     */
+    private static IllegalArgumentException error(String expression, int position, String message) {
+        return new IllegalArgumentException(
+            String.format("Malformed path \"%s\" at position %d: %s", expression, position, message)
+        );
+    }
+}
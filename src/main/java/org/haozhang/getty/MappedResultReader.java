@@ -0,0 +1,274 @@
+package org.haozhang.getty;
+
+import org.haozhang.getty.MappedResultSink.Type;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * This class scans the values written by a {@link MappedResultSink} directly from the mapped
+ *   segment files, without deserializing them into objects.
+ * <br/><br/>
+ *
+ * The reader is a cursor: {@link #next()} moves to the next value, after which its {@link Type} and
+ *   payload can be read. Primitive accessors read straight from the mapping, and
+ *   {@link #getBytes()} returns a read-only view of a string or byte array payload rather than a
+ *   copy; only {@link #getString()} decodes into a new object:
+ * <pre>{@code
+ *   long total = 0;
+ *   try (MappedResultReader reader = new MappedResultReader(directory)) {
+ *       while (reader.next()) {
+ *           if (Type.LONG == reader.getType()) {
+ *               total += reader.getLong();
+ *           }
+ *       }
+ *   }
+ * }</pre>
+ *
+ * Only one segment is mapped at a time. This class is not thread-safe.
+ */
+public final class MappedResultReader implements AutoCloseable {
+    /**
+     * The segment files to read, in order of writing
+     */
+    private final List<Path> segments;
+
+    /**
+     * The index of the next segment file to map
+     */
+    private int nextSegment;
+
+    /**
+     * The segment currently being read, positioned after the current value
+     */
+    private MappedByteBuffer segment;
+
+    /**
+     * The type of the current value; {@code null} before the first value and after the last one
+     */
+    private Type type;
+
+    /**
+     * The position of the payload of the current value in {@link #segment}, after any length prefix
+     */
+    private int offset;
+
+    /**
+     * The length of the payload of the current value, without any length prefix
+     */
+    private int length;
+
+    /**
+     * Construct an instance of {@link MappedResultReader} over the segment files in a given
+     *   directory.
+     *
+     * @param directory The directory written by a {@link MappedResultSink}
+     * @throws IOException If the directory cannot be listed
+     */
+    public MappedResultReader(Path directory) throws IOException {
+        final List<Path> paths = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(MappedResultReader::isSegment).sorted().forEach(paths::add);
+        }
+        this.segments = paths;
+    }
+
+    //==============================================================================================
+    // Public Methods
+    //==============================================================================================
+
+    /**
+     * Move to the next value.
+     *
+     * @return Whether there is a next value
+     */
+    public boolean next() {
+        while (true) {
+            if (null != segment && segment.hasRemaining()) {
+                final byte tag = segment.get();
+                if (Type.END != tag) {
+                    read(tag);
+                    return true;
+                }
+            }
+
+            if (nextSegment >= segments.size()) {
+                segment = null;
+                type = null;
+                return false;
+            }
+            segment = map(segments.get(nextSegment++));
+        }
+    }
+
+    /**
+     * @return The type of the current value
+     */
+    public Type getType() {
+        return current();
+    }
+
+    /**
+     * @return Whether the current value is {@code null}
+     */
+    public boolean isNull() {
+        return Type.NULL == current();
+    }
+
+    public int getInt() {
+        return segment.getInt(payload(Type.INT));
+    }
+
+    public long getLong() {
+        return segment.getLong(payload(Type.LONG));
+    }
+
+    public double getDouble() {
+        return segment.getDouble(payload(Type.DOUBLE));
+    }
+
+    /**
+     * @return The length in bytes of the current string (in UTF-8) or byte array value
+     */
+    public int getLength() {
+        if (Type.STRING != current() && Type.BYTES != type) {
+            throw mismatch(Type.BYTES);
+        }
+        return length;
+    }
+
+    /**
+     * Return a read-only view of the current string (in UTF-8) or byte array value, backed by the
+     *   mapped segment. The view is only valid while the reader is open.
+     *
+     * @return The bytes of the current value
+     */
+    public ByteBuffer getBytes() {
+        final ByteBuffer view = segment.asReadOnlyBuffer();
+        view.limit(offset + getLength()).position(offset);
+        return view.slice();
+    }
+
+    /**
+     * @return The current string value, decoded into a new {@link String}
+     */
+    public String getString() {
+        final ByteBuffer bytes = segment.asReadOnlyBuffer();
+        bytes.limit(offset + length).position(payload(Type.STRING));
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    /**
+     * Return the current value as an object of the type it was written from, except for strings
+     *   (which are decoded) and byte arrays (which are copied).
+     *
+     * @return The current value
+     */
+    public Object getValue() {
+        switch (current()) {
+            case INT:
+                return getInt();
+            case LONG:
+                return getLong();
+            case DOUBLE:
+                return getDouble();
+            case STRING:
+                return getString();
+            case BYTES:
+                final byte[] bytes = new byte[length];
+                getBytes().get(bytes);
+                return bytes;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Release the mapped segment. Mappings are unmapped by the garbage collector once unreachable.
+     */
+    @Override
+    public void close() {
+        segment = null;
+        type = null;
+        nextSegment = segments.size();
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Read the header of the value with a given tag and move past its payload.
+     */
+    private void read(byte tag) {
+        type = Type.ofTag(tag);
+        if (null == type) {
+            throw new IllegalStateException("Corrupt segment: unknown tag " + tag);
+        }
+
+        switch (type) {
+            case NULL:
+                length = 0;
+                break;
+            case INT:
+                length = Integer.BYTES;
+                break;
+            case LONG:
+                length = Long.BYTES;
+                break;
+            case DOUBLE:
+                length = Double.BYTES;
+                break;
+            default:
+                length = segment.getInt();
+        }
+        offset = segment.position();
+        segment.position(offset + length);
+    }
+
+    private Type current() {
+        if (null == type) {
+            throw new IllegalStateException("The reader is not positioned on a value.");
+        }
+        return type;
+    }
+
+    /**
+     * Return the position of the payload of the current value, checking its type.
+     */
+    private int payload(Type expected) {
+        if (expected != current()) {
+            throw mismatch(expected);
+        }
+        return offset;
+    }
+
+    private IllegalStateException mismatch(Type expected) {
+        return new IllegalStateException(
+            "The current value is " + type + ", not " + expected + "."
+        );
+    }
+
+    private static boolean isSegment(Path path) {
+        final String name = path.getFileName().toString();
+        return name.startsWith("segment-") && name.endsWith(".bin");
+    }
+
+    private static MappedByteBuffer map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to map segment " + path, exception);
+        }
+    }
+}
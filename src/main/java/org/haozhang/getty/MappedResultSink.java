@@ -0,0 +1,284 @@
+package org.haozhang.getty;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class writes the results of Getty chains to memory-mapped files, so that batch extractions
+ *   whose results do not fit in the heap are bounded by disk space instead.
+ * <br/><br/>
+ *
+ * Values are appended to a sequence of fixed-size segment files in a directory, each of which is
+ *   mapped into memory while it is written. Every value is a one-byte {@link Type} tag followed by
+ *   its payload: {@code int}s, {@code long}s and {@code double}s are written as is, while strings
+ *   (in UTF-8) and byte arrays are prefixed with their length, and {@code null}s have no payload. A
+ *   value never spans two segments; the unused tail of a segment is left zero-filled, which marks
+ *   its end. The results can then be scanned without deserialization with a
+ *   {@link MappedResultReader}:
+ * <pre>{@code
+ *   try (MappedResultSink sink = new MappedResultSink(directory, DEFAULT_SEGMENT_SIZE)) {
+ *       for (Order order : orders) {
+ *           sink.write(Getty.of(order).get(Order::getCustomer).get(Customer::getId).get());
+ *       }
+ *   }
+ * }</pre>
+ *
+ * Since the value-writing methods are meant to be called from getter chains and lambdas, they
+ *   report I/O failures with {@link UncheckedIOException}s. This class is not thread-safe.
+ */
+public final class MappedResultSink implements AutoCloseable {
+    /**
+     * The default size of each segment file, in bytes
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    /**
+     * The format of segment file names, followed in order of writing
+     */
+    static final String SEGMENT_NAME = "segment-%08d.bin";
+
+    //==============================================================================================
+    // Instance-related
+    //==============================================================================================
+
+    /**
+     * The directory holding the segment files
+     */
+    private final Path directory;
+
+    /**
+     * The size of each segment file, in bytes
+     */
+    private final int segmentSize;
+
+    /**
+     * The segment currently being written; {@code null} before the first value and after closing
+     */
+    private MappedByteBuffer segment;
+
+    /**
+     * The number of segment files created
+     */
+    private int segmentCount;
+
+    /**
+     * The number of values written
+     */
+    private long count;
+
+    private boolean closed;
+
+    /**
+     * Construct an instance of {@link MappedResultSink} writing to a given directory, which is
+     *   created if necessary and must not already hold segment files.
+     *
+     * @param directory The directory to create the segment files in
+     * @param segmentSize The size of each segment file, in bytes; this limits the size of a single
+     *   value
+     * @throws IOException If the directory cannot be created
+     */
+    public MappedResultSink(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= Long.BYTES + 1) {
+            throw new IllegalArgumentException("The segment size is too small: " + segmentSize);
+        }
+
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+    }
+
+    //==============================================================================================
+    // Public Methods
+    //==============================================================================================
+
+    /**
+     * Write a value of any supported type: {@code null}, {@link Integer} (as well as {@link Short}
+     *   and {@link Byte}), {@link Long}, {@link Double} (as well as {@link Float}),
+     *   {@link CharSequence} and {@code byte[]}.
+     *
+     * @param value The value to write
+     * @return This {@link MappedResultSink}
+     * @throws IllegalArgumentException If the type of {@code value} is not supported
+     */
+    public MappedResultSink write(Object value) {
+        if (null == value) {
+            return writeNull();
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            return writeLong((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            return writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof CharSequence) {
+            return writeString(value.toString());
+        } else if (value instanceof byte[]) {
+            return writeBytes((byte[]) value);
+        }
+        throw new IllegalArgumentException(
+            "Unsupported result type: " + value.getClass().getName()
+        );
+    }
+
+    public MappedResultSink writeNull() {
+        reserve(Type.NULL, 0);
+        return this;
+    }
+
+    public MappedResultSink writeInt(int value) {
+        reserve(Type.INT, Integer.BYTES).putInt(value);
+        return this;
+    }
+
+    public MappedResultSink writeLong(long value) {
+        reserve(Type.LONG, Long.BYTES).putLong(value);
+        return this;
+    }
+
+    public MappedResultSink writeDouble(double value) {
+        reserve(Type.DOUBLE, Double.BYTES).putDouble(value);
+        return this;
+    }
+
+    /**
+     * Write a string as length-prefixed UTF-8, or a {@code null} value.
+     *
+     * @param value The string to write
+     * @return This {@link MappedResultSink}
+     */
+    public MappedResultSink writeString(String value) {
+        return null != value
+            ? writeLengthPrefixed(Type.STRING, value.getBytes(StandardCharsets.UTF_8))
+            : writeNull();
+    }
+
+    /**
+     * Write a length-prefixed byte array, or a {@code null} value.
+     *
+     * @param value The bytes to write
+     * @return This {@link MappedResultSink}
+     */
+    public MappedResultSink writeBytes(byte[] value) {
+        return null != value ? writeLengthPrefixed(Type.BYTES, value) : writeNull();
+    }
+
+    /**
+     * @return The number of values written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The directory holding the segment files
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Flush the segment being written to disk and stop accepting values. Earlier segments are
+     *   flushed as soon as the sink moves on from them.
+     */
+    @Override
+    public void close() {
+        if (null != segment) {
+            segment.force();
+            segment = null;
+        }
+        closed = true;
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    private MappedResultSink writeLengthPrefixed(Type type, byte[] bytes) {
+        // Add as longs, since the length of a large array would overflow an int.
+        reserve(type, (long) Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+        return this;
+    }
+
+    /**
+     * Write the tag of a value, moving on to a new segment first if the current one cannot hold
+     *   the whole value. The segment being left is flushed to disk first.
+     *
+     * @param type The type of the value
+     * @param size The size of the payload of the value, in bytes
+     * @return The segment to write the payload to
+     */
+    private MappedByteBuffer reserve(Type type, long size) {
+        if (closed) {
+            throw new IllegalStateException("The sink has been closed.");
+        }
+        if (size > segmentSize - 1) {
+            throw new IllegalArgumentException(String.format(
+                "A value of %d bytes does not fit in segments of %d bytes.", size, segmentSize
+            ));
+        }
+
+        if (null == segment || segment.remaining() < size + 1) {
+            if (null != segment) {
+                segment.force();
+            }
+            segment = map(segmentCount++);
+        }
+
+        count++;
+        segment.put(type.tag);
+        return segment;
+    }
+
+    private MappedByteBuffer map(int index) {
+        final Path path = directory.resolve(String.format(SEGMENT_NAME, index));
+        try (FileChannel channel = FileChannel.open(
+            path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE
+        )) {
+            // The mapping stays valid after the channel is closed.
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to create segment " + path, exception);
+        }
+    }
+
+    //==============================================================================================
+    // Inner Classes
+    //==============================================================================================
+
+    /**
+     * This enum represents the type of a value written by a {@link MappedResultSink}.
+     */
+    public enum Type {
+        NULL(1), INT(2), LONG(3), DOUBLE(4), STRING(5), BYTES(6);
+
+        /**
+         * The tag marking the end of the values of a segment
+         */
+        static final byte END = 0;
+
+        private static final Type[] TAGS = {null, NULL, INT, LONG, DOUBLE, STRING, BYTES};
+
+        /**
+         * The byte preceding values of this type
+         */
+        final byte tag;
+
+        Type(int tag) {
+            this.tag = (byte) tag;
+        }
+
+        /**
+         * Return the type with a given tag.
+         *
+         * @param tag The tag
+         * @return The type, or {@code null} if {@code tag} is {@link #END} or unknown
+         */
+        static Type ofTag(byte tag) {
+            return tag > 0 && tag < TAGS.length ? TAGS[tag] : null;
+        }
+    }
+}
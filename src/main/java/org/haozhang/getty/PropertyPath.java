@@ -0,0 +1,237 @@
+package org.haozhang.getty;
+
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class compiles JavaBean property paths chosen at runtime (such as {@code "b.c.d"}) into
+ *   {@link Getter}s, for cases where the getter chain is not known at compile time (for example,
+ *   user-selected report columns).
+ * <br/><br/>
+ *
+ * Each segment is resolved once against the declared return type of the previous one, looking for
+ *   a public {@code getX()}, {@code isX()}, or {@code x()} method. The resolved methods are linked
+ *   with {@link LambdaMetafactory} into the same kind of {@link Getter} that the compiler creates
+ *   for a method reference such as {@code A::getB}, so calling a compiled path costs about as much
+ *   as a hand-written lambda chain rather than a reflective call. Methods that cannot be linked
+ *   this way fall back to a {@link MethodHandle}: those of non-public classes (such as private
+ *   nested DTOs, whose getters are made accessible first), and those involving classes which
+ *   Getty's class loader cannot see (such as the classes of a webapp or plugin loaded by a child
+ *   class loader).
+ * <br/><br/>
+ *
+ * Compiled paths are cached per root class and path in a {@link ClassValue}. See below for an
+ *   example usage:
+ * <pre>{@code
+ *   Getter<A, Object> getter = PropertyPath.compile(A.class, "b.c.d");
+ *
+ *   Object d = Getty.of(a).get(getter).get(); // Equivalent to a.getB().getC().getD()
+ * }</pre>
+ *
+ * As with {@link MapPath}, a {@code null} value at any segment short-circuits the rest of the path
+ *   to {@code null}; exceptions thrown by the getter methods are left to the exception handler of
+ *   the {@link Getty} link that the path is used in.
+ */
+public final class PropertyPath {
+    /**
+     * The lookup used to link getter methods
+     */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * The class loader which the classes linked through {@link LambdaMetafactory} resolve against
+     */
+    private static final ClassLoader LOADER = PropertyPath.class.getClassLoader();
+
+    /**
+     * The type of the {@link Getter#apply(Object)} method after erasure
+     */
+    private static final MethodType APPLY_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * The compiled paths by root class and path
+     */
+    private static final ClassValue<Map<String, Getter<?, ?>>> CACHE =
+        new ClassValue<Map<String, Getter<?, ?>>>() {
+            @Override
+            protected Map<String, Getter<?, ?>> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+    private PropertyPath() {
+    }
+
+    /**
+     * Return the compiled {@link Getter} for a given property path on a given class, compiling it
+     *   if it is not cached yet.
+     *
+     * @param type The class the path is evaluated against
+     * @param path The dot-separated property names
+     * @param <T> The type of the object the path is evaluated against
+     * @param <R> The type of the object at the end of the path
+     * @return A {@link Getter} evaluating the path
+     * @throws IllegalArgumentException If a segment cannot be resolved to a public getter method,
+     *   or the getter method cannot be made accessible
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R> Getter<T, R> compile(Class<T> type, String path) {
+        Objects.requireNonNull(type, "The type cannot be null.");
+        Objects.requireNonNull(path, "The property path cannot be null.");
+
+        final Map<String, Getter<?, ?>> paths = CACHE.get(type);
+        final Getter<?, ?> cached = paths.get(path);
+        if (null != cached) {
+            return (Getter<T, R>) cached;
+        }
+        return (Getter<T, R>) paths.computeIfAbsent(path, __ -> resolve(type, path));
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    /**
+     * Resolve every segment of a property path and link them into a {@link CompiledPath}.
+     *
+     * @param type The class the path is evaluated against
+     * @param path The dot-separated property names
+     * @return The compiled path
+     */
+    @SuppressWarnings("unchecked")
+    private static Getter<?, ?> resolve(Class<?> type, String path) {
+        final String[] properties = path.split("\\.", -1);
+        final Getter<Object, Object>[] steps = new Getter[properties.length];
+        Class<?> current = type;
+
+        for (int i = 0; i < properties.length; i++) {
+            final Method method = findGetter(current, properties[i], path);
+            steps[i] = link(method);
+            current = method.getReturnType();
+        }
+
+        // A single step needs no null-checking loop around it.
+        return 1 == steps.length ? steps[0] : new CompiledPath<>(path, steps);
+    }
+
+    /**
+     * Return the public getter method for a given property of a given class.
+     *
+     * @param type The class declaring the property
+     * @param property The name of the property
+     * @param path The full property path, for error messages
+     * @return The getter method for the property
+     */
+    private static Method findGetter(Class<?> type, String property, String path) {
+        if (property.isEmpty()) {
+            throw new IllegalArgumentException("Empty property in path \"" + path + "\"");
+        }
+
+        final String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (String name : new String[] {"get" + suffix, "is" + suffix, property}) {
+            try {
+                final Method method = type.getMethod(name);
+                if (void.class != method.getReturnType()
+                    && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException exception) {
+                // Try the next naming convention.
+            }
+        }
+
+        throw new IllegalArgumentException(String.format(
+            "No public getter for property \"%s\" of %s in path \"%s\"",
+            property, type.getName(), path
+        ));
+    }
+
+    /**
+     * Link a getter method into a {@link Getter}, through {@link LambdaMetafactory} if possible.
+     *
+     * @param method The getter method
+     * @return A {@link Getter} calling the getter method
+     */
+    @SuppressWarnings("unchecked")
+    private static Getter<Object, Object> link(Method method) {
+        final MethodHandle handle = unreflect(method);
+
+        // The generated class resolves the classes it uses through Getty's class loader.
+        if (Modifier.isPublic(method.getDeclaringClass().getModifiers())
+            && isVisible(method.getDeclaringClass()) && isVisible(method.getReturnType())) {
+            try {
+                return (Getter<Object, Object>) LambdaMetafactory.metafactory(
+                    LOOKUP,
+                    "apply",
+                    MethodType.methodType(Getter.class),
+                    APPLY_TYPE,
+                    handle,
+                    handle.type().wrap()
+                ).getTarget().invoke();
+            } catch (LambdaConversionException exception) {
+                // Fall back to the method handle below.
+            } catch (RuntimeException | Error exception) {
+                throw exception;
+            } catch (Throwable throwable) {
+                throw new RuntimeException(throwable);
+            }
+        }
+
+        final MethodHandle generic = handle.asType(APPLY_TYPE);
+        return object -> {
+            try {
+                return generic.invokeExact(object);
+            } catch (RuntimeException | Error exception) {
+                throw exception;
+            } catch (Throwable throwable) {
+                throw new RuntimeException(throwable);
+            }
+        };
+    }
+
+    /**
+     * Return a {@link MethodHandle} for a getter method. Public methods of non-public classes
+     *   outside Getty's package (such as private nested DTOs) are made accessible first.
+     *
+     * @param method The getter method
+     * @return A {@link MethodHandle} calling the getter method
+     * @throws IllegalArgumentException If the getter method cannot be made accessible
+     */
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException exception) {
+            try {
+                method.setAccessible(true);
+                return LOOKUP.unreflect(method);
+            } catch (IllegalAccessException | RuntimeException accessException) {
+                throw new IllegalArgumentException(
+                    "Cannot access getter " + method, accessException
+                );
+            }
+        }
+    }
+
+    /**
+     * @return Whether a class can be resolved through Getty's class loader, that is, whether it was
+     *   loaded by that class loader or one of its ancestors
+     */
+    private static boolean isVisible(Class<?> type) {
+        final ClassLoader loader = type.getClassLoader();
+        for (ClassLoader current = LOADER; ; current = current.getParent()) {
+            if (current == loader) {
+                return true;
+            } else if (null == current) {
+                return false;
+            }
+        }
+    }
+}
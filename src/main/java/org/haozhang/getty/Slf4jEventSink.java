@@ -0,0 +1,58 @@
+package org.haozhang.getty;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class logs the events of the Getty library through SLF4J, which must be on the classpath.
+ * <br/><br/>
+ *
+ * Failures are logged at the {@code ERROR} level, completed warm-ups at {@code INFO}, and cache
+ *   evictions at {@code DEBUG}. Messages are only formatted if their level is enabled.
+ *
+ * @see Getty#setEventSink(GettyEventSink)
+ */
+public class Slf4jEventSink implements GettyEventSink {
+    private final Logger logger;
+
+    /**
+     * Construct an instance of {@link Slf4jEventSink} logging to the logger of {@link Getty}.
+     */
+    public Slf4jEventSink() {
+        this(LoggerFactory.getLogger(Getty.class));
+    }
+
+    /**
+     * Construct an instance of {@link Slf4jEventSink} logging to a given logger.
+     *
+     * @param logger The logger to log the events to
+     */
+    public Slf4jEventSink(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void onEvent(Event event, Object subject, Throwable exception) {
+        switch (event) {
+            case CHAIN_UNCACHED:
+                logger.debug("Removing chain from cache: head={}", subject);
+                break;
+            case SUPPLIER_FAILED:
+                logger.error(
+                    "Value supplier call failed; calling default value supplier", exception
+                );
+                break;
+            case DEFAULT_SUPPLIER_FAILED:
+                logger.error("Default value supplier call failed", exception);
+                break;
+            case ASYNC_HANDLER_FAILED:
+                logger.error("Asynchronous exception handler failed", exception);
+                break;
+            case CHAINS_WARMED_UP:
+                logger.info("Warmed up Getty chains: {}", subject);
+                break;
+            default:
+                logger.warn("Unknown Getty event {}: {}", event, subject, exception);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.haozhang.getty;
+
+/**
+ * This interface is implemented by mutable objects which can be used as the heads of cached Getty
+ *   chains.
+ * <br/><br/>
+ *
+ * A cached chain keeps the intermediate objects it has seen, and reuses a cached {@link Getty}
+ *   instance whenever a getter returns an object equal to one of them. If the head is updated in
+ *   place, those intermediates may be stale. By exposing a version which changes with every update
+ *   (such as a modification counter), a head lets {@link Getty#cached(Object)} check its chain in
+ *   constant time and drop the chain's cached instances whenever the version has changed:
+ * <pre>{@code
+ *   class Config implements Versioned {
+ *       private volatile Duration timeout;
+ *       private volatile long version;
+ *
+ *       void setTimeout(Duration timeout) {
+ *           this.timeout = timeout;
+ *           version++;
+ *       }
+ *
+ *       public long getVersion() {
+ *           return version;
+ *       }
+ *   }
+ * }</pre>
+ *
+ * Heads which cannot implement this interface can supply their version with
+ *   {@link Getty#cached(Object, java.util.function.ToLongFunction)} instead.
+ */
+@FunctionalInterface
+public interface Versioned {
+    /**
+     * Return the current version of this object. It must change whenever the state read by Getty
+     *   chains changes, and should be as cheap as a field read.
+     *
+     * @return The current version
+     */
+    long getVersion();
+}
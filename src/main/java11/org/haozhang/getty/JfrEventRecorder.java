@@ -0,0 +1,141 @@
+package org.haozhang.getty;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class records Getty's events as JDK Flight Recorder events in the "Getty" category.
+ * <br/><br/>
+ *
+ * Every method first creates its event and checks {@link Event#shouldCommit()}; while no recording
+ *   enables the event, that check is constant-folded by the JIT compiler and the event object is
+ *   scalar-replaced, so disabled events cost nothing.
+ * <br/><br/>
+ *
+ * This class is compiled separately on JDK 11 and later and only loaded by
+ *   {@link EventRecorder.Loader} when JFR is available.
+ */
+final class JfrEventRecorder implements EventRecorder {
+    @Override
+    public ChainRecording beginChain(Object head) {
+        final ChainEvaluationEvent event = new ChainEvaluationEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+
+        event.headType = head.getClass();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void handlerInvoked(Getter<?, ?> getter, Exception exception) {
+        final HandlerInvocationEvent event = new HandlerInvocationEvent();
+        if (event.shouldCommit()) {
+            event.getterType = getter.getClass();
+            event.exceptionType = exception.getClass();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void defaultUsed(Getter<?, ?> getter) {
+        final DefaultFallbackEvent event = new DefaultFallbackEvent();
+        if (event.shouldCommit()) {
+            event.getterType = null != getter ? getter.getClass() : null;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void cacheInserted(Object head) {
+        final CacheInsertEvent event = new CacheInsertEvent();
+        if (event.shouldCommit()) {
+            event.headType = head.getClass();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void cacheEvicted(Object head, int instances) {
+        final CacheEvictEvent event = new CacheEvictEvent();
+        if (event.shouldCommit()) {
+            event.headType = head.getClass();
+            event.instances = instances;
+            event.commit();
+        }
+    }
+
+    //==============================================================================================
+    // Events
+    //==============================================================================================
+
+    @Name("org.haozhang.getty.ChainEvaluation")
+    @Label("Getty Chain Evaluation")
+    @Category("Getty")
+    @Description("An uncached Getty chain from its head to its terminal call")
+    @StackTrace(false)
+    static final class ChainEvaluationEvent extends Event implements ChainRecording {
+        @Label("Head Type")
+        Class<?> headType;
+
+        @Label("Depth")
+        @Description("The number of links evaluated")
+        int depth;
+
+        @Override
+        public void link() {
+            depth++;
+        }
+
+        @Override
+        public void finish() {
+            commit(); // Ends the event, measuring its duration
+        }
+    }
+
+    @Name("org.haozhang.getty.HandlerInvocation")
+    @Label("Getty Exception Handler Invocation")
+    @Category("Getty")
+    static final class HandlerInvocationEvent extends Event {
+        @Label("Getter Type")
+        Class<?> getterType;
+
+        @Label("Exception Type")
+        Class<?> exceptionType;
+    }
+
+    @Name("org.haozhang.getty.DefaultFallback")
+    @Label("Getty Default Value Fallback")
+    @Category("Getty")
+    static final class DefaultFallbackEvent extends Event {
+        @Label("Getter Type")
+        Class<?> getterType;
+    }
+
+    @Name("org.haozhang.getty.CacheInsert")
+    @Label("Getty Cache Insert")
+    @Category("Getty")
+    @StackTrace(false)
+    static final class CacheInsertEvent extends Event {
+        @Label("Head Type")
+        Class<?> headType;
+    }
+
+    @Name("org.haozhang.getty.CacheEvict")
+    @Label("Getty Cache Evict")
+    @Category("Getty")
+    @StackTrace(false)
+    static final class CacheEvictEvent extends Event {
+        @Label("Head Type")
+        Class<?> headType;
+
+        @Label("Instances")
+        @Description("The number of cached Getty instances released")
+        int instances;
+    }
+}
@@ -0,0 +1,133 @@
+package org.haozhang.getty;
+
+import org.haozhang.getty.AdaptiveCachePolicy.Decision;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class AdaptiveCachePolicyTest extends GettyTestSupport {
+    private static final int EVALUATION_SAMPLES = 4;
+
+    // Sample every chain so that decisions are deterministic.
+    private final AdaptiveCachePolicy policy =
+        new AdaptiveCachePolicy(1, EVALUATION_SAMPLES, 0.5, Long.MAX_VALUE);
+
+    @Before
+    public void setup() {
+        CACHE.clear();
+    }
+
+    @Test
+    public void adaptive_beforeFirstEvaluation_thenReturnUncachedGettyInstance() {
+        final Getty<Map<Integer, Integer>> a = Getty.adaptive(MAP, policy);
+        final Getty<Map<Integer, Integer>> b = Getty.adaptive(MAP, policy);
+
+        assertThat(a, not(sameInstance(b)));
+        assertThat(CACHE.keySet(), empty());
+    }
+
+    @Test
+    public void adaptive_whenHeadsAreReused_thenSwitchToCaching() {
+        for (int i = 0; i < EVALUATION_SAMPLES; i++) {
+            Getty.adaptive(MAP, policy).get(GOOD_GETTER).get();
+        }
+
+        final Decision decision = policy.getDecisions().get(MAP.getClass());
+        assertThat(decision.isCached(), is(true));
+        assertThat(decision.getReuseRatio(), equalTo(0.75));
+        assertThat(decision.getEvaluations(), equalTo(1L));
+
+        final Getty<Map<Integer, Integer>> a = Getty.adaptive(MAP, policy);
+        assertThat(Getty.adaptive(MAP, policy), sameInstance(a));
+        a.get();
+    }
+
+    @Test
+    public void adaptive_whenHeadsAreNotReused_thenSwitchBackToUncached() {
+        for (int i = 0; i < EVALUATION_SAMPLES; i++) {
+            Getty.adaptive(MAP, policy).get();
+        }
+        for (int i = 0; i < EVALUATION_SAMPLES; i++) {
+            Getty.adaptive(Collections.singletonMap(i, 0), policy).get();
+        }
+
+        final Decision decision = policy.getDecisions().get(MAP.getClass());
+        assertThat(decision.isCached(), is(false));
+        assertThat(decision.getReuseRatio(), equalTo(0d));
+        assertThat(decision.getEvaluations(), equalTo(2L));
+        assertThat(CACHE.keySet(), empty());
+    }
+
+    @Test
+    public void adaptive_whenLookupsAreTooExpensive_thenStayUncached() {
+        final AdaptiveCachePolicy strictPolicy =
+            new AdaptiveCachePolicy(1, EVALUATION_SAMPLES, 0.5, -1);
+
+        for (int i = 0; i < EVALUATION_SAMPLES; i++) {
+            Getty.adaptive(MAP, strictPolicy).get();
+        }
+
+        assertThat(strictPolicy.getDecisions().get(MAP.getClass()).isCached(), is(false));
+    }
+
+    @Test
+    public void adaptive_whenWindowIsIncomplete_thenDoNotHoldSampledHeads() {
+        final AdaptiveCachePolicy slowPolicy =
+            new AdaptiveCachePolicy(1, Integer.MAX_VALUE, 0.5, Long.MAX_VALUE);
+        Map<Integer, Integer> head = new HashMap<>(MAP);
+        Getty.adaptive(head, slowPolicy).get(GOOD_GETTER).get();
+
+        final WeakReference<Map<Integer, Integer>> reference = new WeakReference<>(head);
+        head = null;
+        for (int i = 0; i < 10 && null != reference.get(); i++) {
+            System.gc();
+        }
+
+        assertThat(reference.get(), nullValue());
+    }
+
+    @Test
+    public void adaptive_whenHeadClassLoaderIsDropped_thenDoNotHoldHeadType() throws Exception {
+        final URL classes = Head.class.getProtectionDomain().getCodeSource().getLocation();
+        URLClassLoader loader = new URLClassLoader(new URL[] { classes }, null);
+        Object head = loader.loadClass(Head.class.getName()).newInstance();
+
+        Getty.adaptive(head, policy).get();
+        Getty.adaptive(head, policy).get();
+        assertThat(policy.getDecisions(), hasKey(head.getClass()));
+
+        final WeakReference<Class<?>> reference = new WeakReference<>(head.getClass());
+        loader.close();
+        loader = null;
+        head = null;
+        for (int i = 0; i < 10 && null != reference.get(); i++) {
+            System.gc();
+        }
+
+        assertThat(reference.get(), nullValue());
+    }
+
+    @Test
+    public void of_whenAdaptiveCachingIsEnabled_thenUseDefaultPolicy() {
+        System.setProperty(CACHE_DETERMINER, "adaptive");
+        try {
+            assertThat(Getty.of(MAP).get(GOOD_GETTER).get(), equalTo(GOOD_VALUE));
+            assertThat(AdaptiveCachePolicy.getDefault().getDecisions(), hasKey(MAP.getClass()));
+        } finally {
+            System.clearProperty(CACHE_DETERMINER);
+        }
+    }
+
+    // A head type which tests load through class loaders of their own
+    public static class Head {
+    }
+}
@@ -0,0 +1,184 @@
+package org.haozhang.getty;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+// Measures the bytes allocated and the time taken per operation over warmed-up loops on the
+//   current thread. It is coarser than the JMH benchmarks, but fast enough to run with every build.
+//   Use measureInFork() to measure operations in a JVM of their own, where the type profiles
+//   inside Getty are not polluted by other tests and escape analysis works as in production.
+public final class AllocationMeter {
+    // The number of operations run before measuring, enough for the JIT compiler to compile them
+    private static final int WARM_UP_OPERATIONS = 50_000;
+
+    // The number of measured rounds, of which the best is kept to filter out compilation noise
+    private static final int ROUNDS = 10;
+
+    // The number of operations per measured round
+    private static final int OPERATIONS_PER_ROUND = 20_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS = getThreadMXBean();
+
+    // The prefix of the line a forked JVM prints its measurement on
+    private static final String RESULT_PREFIX = "measurement:";
+
+    // Keeps operation results reachable so that the operations are not optimized away
+    private static volatile Object sink;
+
+    private AllocationMeter() {
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    // Return whether the JVM can measure the allocations of a thread.
+    public static boolean isSupported() {
+        return null != THREADS && THREADS.isThreadAllocatedMemorySupported();
+    }
+
+    // Warm up an operation, then measure it.
+    public static Measurement measure(Supplier<?> operation) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Allocation measurement is unsupported.");
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        run(operation, WARM_UP_OPERATIONS);
+
+        final long thread = Thread.currentThread().getId();
+        // Reading the allocation counter may allocate itself, so measure that as well.
+        final long before = THREADS.getThreadAllocatedBytes(thread);
+        final long overhead = THREADS.getThreadAllocatedBytes(thread) - before;
+        double bytesPerOperation = Double.MAX_VALUE;
+        double nanosPerOperation = Double.MAX_VALUE;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            final long bytes = THREADS.getThreadAllocatedBytes(thread);
+            final long start = System.nanoTime();
+            run(operation, OPERATIONS_PER_ROUND);
+            final long nanos = System.nanoTime() - start;
+            final long allocated = THREADS.getThreadAllocatedBytes(thread) - bytes - overhead;
+
+            bytesPerOperation =
+                Math.min(bytesPerOperation, Math.max(0, allocated) / (double) OPERATIONS_PER_ROUND);
+            nanosPerOperation =
+                Math.min(nanosPerOperation, nanos / (double) OPERATIONS_PER_ROUND);
+        }
+        return new Measurement(bytesPerOperation, nanosPerOperation);
+    }
+
+    // Measure the operations held by static Supplier fields of a given class, in order, in a new
+    //   JVM. Operations measured in the same JVM share its configuration (such as the object
+    //   layout), so one of them can serve as the allocation baseline of another.
+    public static List<Measurement> measureInFork(Class<?> type, String... fields) {
+        final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        final List<String> command = new ArrayList<>(Arrays.asList(
+            java, "-cp", System.getProperty("java.class.path"), Fork.class.getName(), type.getName()
+        ));
+        command.addAll(Arrays.asList(fields));
+        final ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        final String names = String.join(", ", fields);
+
+        try {
+            final Process process = builder.start();
+            final StringBuilder output = new StringBuilder();
+            final List<Measurement> measurements = new ArrayList<>();
+
+            try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)
+            )) {
+                for (String line; null != (line = reader.readLine()); ) {
+                    if (line.startsWith(RESULT_PREFIX)) {
+                        final String[] values = line.substring(RESULT_PREFIX.length()).split(" ");
+                        measurements.add(new Measurement(
+                            Double.parseDouble(values[0]), Double.parseDouble(values[1])
+                        ));
+                    } else {
+                        output.append(line).append(System.lineSeparator());
+                    }
+                }
+            }
+
+            if (0 != process.waitFor() || fields.length != measurements.size()) {
+                throw new IllegalStateException("Failed to measure " + names + ":\n" + output);
+            }
+            return measurements;
+        } catch (IOException exception) {
+            throw new IllegalStateException("Failed to fork a JVM.", exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while measuring " + names, exception);
+        }
+    }
+
+    private static void run(Supplier<?> operation, int operations) {
+        for (int i = 0; i < operations; i++) {
+            sink = operation.get();
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        try {
+            return (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        } catch (ClassCastException | LinkageError exception) {
+            return null;
+        }
+    }
+
+    //==============================================================================================
+    // Inner Classes
+    //==============================================================================================
+
+    // The entry point of the JVMs forked by measureInFork()
+    public static final class Fork {
+        public static void main(String... args) throws Exception {
+            final Class<?> type = Class.forName(args[0]);
+
+            for (int i = 1; i < args.length; i++) {
+                final Field field = type.getDeclaredField(args[i]);
+                field.setAccessible(true);
+
+                final Measurement measurement = measure((Supplier<?>) field.get(null));
+                System.out.println(String.format(
+                    Locale.ROOT, "%s%f %f", RESULT_PREFIX,
+                    measurement.getBytesPerOperation(), measurement.getNanosPerOperation()
+                ));
+            }
+        }
+    }
+
+    // The best per-operation cost observed over the measured rounds
+    public static final class Measurement {
+        private final double bytesPerOperation;
+        private final double nanosPerOperation;
+
+        private Measurement(double bytesPerOperation, double nanosPerOperation) {
+            this.bytesPerOperation = bytesPerOperation;
+            this.nanosPerOperation = nanosPerOperation;
+        }
+
+        public double getBytesPerOperation() {
+            return bytesPerOperation;
+        }
+
+        public double getNanosPerOperation() {
+            return nanosPerOperation;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.2f B/op, %.1f ns/op", bytesPerOperation, nanosPerOperation);
+        }
+    }
+}
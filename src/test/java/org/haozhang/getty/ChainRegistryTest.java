@@ -0,0 +1,59 @@
+package org.haozhang.getty;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ChainRegistryTest extends GettyTestSupport {
+    @Test
+    public void warmUp_whenChainsAreRegistered_thenReportEachChain() {
+        final ChainRegistry registry = new ChainRegistry()
+            .register("value", (Map<Integer, Integer> map) -> Getty.of(map).get(GOOD_GETTER).get(), MAP)
+            .register(
+                "nonNull",
+                (Map<Integer, Integer> map) -> Getty.of(map).getNonNull(NULL_GETTER).get(),
+                Collections.singletonList(MAP)
+            );
+
+        final List<ChainRegistry.Report> reports = registry.warmUp(10);
+
+        assertThat(registry.getNames(), contains("value", "nonNull"));
+        assertThat(reports, hasSize(3));
+        assertThat(reports.get(0).getName(), equalTo(ChainRegistry.LIBRARY_CHAIN));
+        assertThat(reports.get(0).getInvocations(), equalTo(20L));
+        assertThat(reports.get(1).getName(), equalTo("value"));
+        assertThat(reports.get(1).getInvocations(), equalTo(10L));
+        assertThat(reports.get(1).getFailures(), equalTo(0L));
+        assertThat(reports.get(2).getFailures(), equalTo(10L)); // getNonNull() throws each time.
+        assertThat(reports.get(2).getTotalNanos(), greaterThanOrEqualTo(reports.get(2).getFirstCallNanos()));
+        assertThat(reports.get(2).toString(), startsWith("nonNull{invocations=10, failures=10"));
+    }
+
+    @Test
+    public void warmUp_whenChainsAreCached_thenLeaveGlobalCacheUntouched() {
+        final int cacheSize = CACHE.size();
+
+        new ChainRegistry()
+            .register("cached", (Map<Integer, Integer> map) -> Getty.cached(map).get(GOOD_GETTER).getAndCache(), MAP)
+            .warmUp(1);
+
+        assertThat(CACHE.size(), equalTo(cacheSize));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void register_whenNameIsTaken_thenThrowIllegalArgumentException() {
+        new ChainRegistry()
+            .register("chain", head -> null, MAP)
+            .register("chain", head -> null, MAP);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void register_whenNoSampleHeadsAreGiven_thenThrowIllegalArgumentException() {
+        new ChainRegistry().register("chain", head -> null, Collections.emptyList());
+    }
+}
@@ -0,0 +1,153 @@
+package org.haozhang.getty;
+
+import org.haozhang.getty.CircuitBreakerGetter.State;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CircuitBreakerGetterTest extends GettyTestSupport {
+    private static final long COOL_DOWN_MILLIS = 50;
+
+    // A window long enough for the first (slow) failures of a new getter to be counted together
+    private static final long WINDOW_MILLIS = 10_000;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean(true);
+
+    // A getter that counts its calls and fails until told otherwise
+    private final Getter<Map<Integer, Integer>, Integer> flakyGetter = map -> {
+        calls.incrementAndGet();
+        if (failing.get()) {
+            throw new IllegalStateException();
+        }
+        return map.get(GOOD_KEY);
+    };
+
+    private final CircuitBreakerGetter<Map<Integer, Integer>, Integer> breaker =
+        flakyGetter.withCircuitBreaker(3, WINDOW_MILLIS, COOL_DOWN_MILLIS, TimeUnit.MILLISECONDS);
+
+    @Test
+    public void apply_whenFailuresReachThreshold_thenSkipGetter() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(Getty.of(MAP).getOrDefault(breaker, DEFAULT_VALUE).get(), equalTo(DEFAULT_VALUE));
+        }
+        assertThat(breaker.getState(), equalTo(State.OPEN));
+
+        final Object[] handled = new Object[1];
+        final Integer value = Getty.of(MAP)
+            .get(breaker, (m, e) -> { handled[0] = e; return DEFAULT_VALUE; })
+            .get();
+
+        assertThat(value, equalTo(DEFAULT_VALUE));
+        assertThat(handled[0], instanceOf(CircuitOpenException.class));
+        assertThat(calls.get(), equalTo(3));
+    }
+
+    @Test
+    public void apply_whenCoolDownElapsesAndTrialSucceeds_thenClose() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Getty.of(MAP).get(breaker).get();
+        }
+        assertThat(breaker.getState(), equalTo(State.OPEN));
+
+        failing.set(false);
+        Thread.sleep(COOL_DOWN_MILLIS * 2);
+
+        assertThat(Getty.of(MAP).get(breaker).get(), equalTo(GOOD_VALUE));
+        assertThat(breaker.getState(), equalTo(State.CLOSED));
+        assertThat(calls.get(), equalTo(4));
+    }
+
+    @Test
+    public void apply_whenCoolDownElapsesAndTrialFails_thenReopen() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Getty.of(MAP).get(breaker).get();
+        }
+        Thread.sleep(COOL_DOWN_MILLIS * 2);
+
+        assertThat(Getty.of(MAP).get(breaker).get(), nullValue());
+        assertThat(breaker.getState(), equalTo(State.OPEN));
+        assertThat(Getty.of(MAP).get(breaker).get(), nullValue());
+        assertThat(calls.get(), equalTo(4));
+    }
+
+    @Test
+    public void apply_whenFailuresAreSpreadOutOverWindows_thenStayClosed() throws Exception {
+        final CircuitBreakerGetter<Map<Integer, Integer>, Integer> slowBreaker =
+            flakyGetter.withCircuitBreaker(2, 20, COOL_DOWN_MILLIS, TimeUnit.MILLISECONDS);
+
+        Getty.of(MAP).get(slowBreaker).get();
+        Thread.sleep(40);
+        Getty.of(MAP).get(slowBreaker).get();
+
+        assertThat(slowBreaker.getState(), equalTo(State.CLOSED));
+    }
+
+    @Test
+    public void apply_whenGetterThrowsCheckedExceptions_thenCountFailures() {
+        final CircuitBreakerGetter<Map<Integer, Integer>, Integer> checkedBreaker =
+            ((Getter<Map<Integer, Integer>, Integer>) map -> {
+                calls.incrementAndGet();
+                throw sneakyThrow(new IOException());
+            }).withCircuitBreaker(3, WINDOW_MILLIS, COOL_DOWN_MILLIS, TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(
+                Getty.of(MAP).getOrDefault(checkedBreaker, DEFAULT_VALUE).get(),
+                equalTo(DEFAULT_VALUE)
+            );
+        }
+
+        assertThat(checkedBreaker.getState(), equalTo(State.OPEN));
+        assertThat(calls.get(), equalTo(3));
+    }
+
+    @Test
+    public void apply_whenTrialThrowsError_thenReopen() throws Exception {
+        final AtomicBoolean erroring = new AtomicBoolean();
+        final CircuitBreakerGetter<Map<Integer, Integer>, Integer> errorBreaker =
+            ((Getter<Map<Integer, Integer>, Integer>) map -> {
+                if (erroring.get()) {
+                    throw new AssertionError();
+                }
+                return flakyGetter.apply(map);
+            }).withCircuitBreaker(3, WINDOW_MILLIS, COOL_DOWN_MILLIS, TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < 3; i++) {
+            Getty.of(MAP).get(errorBreaker).get();
+        }
+        erroring.set(true);
+        Thread.sleep(COOL_DOWN_MILLIS * 2);
+
+        try {
+            errorBreaker.apply(MAP);
+        } catch (AssertionError expected) {
+            // The trial call fails with an error, which must not leave the breaker half-open
+        }
+        assertThat(errorBreaker.getState(), equalTo(State.OPEN));
+
+        erroring.set(false);
+        failing.set(false);
+        Thread.sleep(COOL_DOWN_MILLIS * 2);
+
+        assertThat(Getty.of(MAP).get(errorBreaker).get(), equalTo(GOOD_VALUE));
+        assertThat(errorBreaker.getState(), equalTo(State.CLOSED));
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    // Throw a given throwable without declaring it, as code compiled against other languages may.
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> RuntimeException sneakyThrow(Throwable throwable) throws E {
+        throw (E) throwable;
+    }
+}
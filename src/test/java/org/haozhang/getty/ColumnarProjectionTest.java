@@ -0,0 +1,121 @@
+package org.haozhang.getty;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ColumnarProjectionTest extends GettyTestSupport {
+    private static final List<Map<Integer, Integer>> HEADS =
+        Arrays.asList(MAP, null, Collections.singletonMap(GOOD_KEY, null), MAP);
+
+    @Test
+    public void project_whenChainsResolve_thenFillColumns() {
+        final ColumnarBatch batch = ColumnarProjection.<Map<Integer, Integer>>builder()
+            .intColumn("int", DEFAULT_VALUE, GOOD_GETTER)
+            .longColumn("long", -1L, GOOD_GETTER)
+            .doubleColumn("double", Double.NaN, GOOD_GETTER)
+            .objectColumn("object", "none", GOOD_GETTER, (Getter<Integer, String>) String::valueOf)
+            .build()
+            .project(HEADS);
+
+        assertThat(batch.size(), equalTo(4));
+        assertThat(batch.getInts(0)[0], equalTo(GOOD_VALUE));
+        assertThat(batch.getInts(0)[1], equalTo(DEFAULT_VALUE));
+        assertThat(batch.getLongs(1)[2], equalTo(-1L));
+        assertThat(batch.getDoubles(2)[3], equalTo(1.0));
+        assertThat(Arrays.asList(batch.getObjects(3)), contains("1", "none", "none", "1"));
+        assertThat(batch.getNullBitmap(0)[0], equalTo(0b0110L));
+        assertThat(batch.isNull(3, 0), equalTo(false));
+        assertThat(batch.isNull(3, 1), equalTo(true));
+        assertThat(batch.columnIndex("double"), equalTo(2));
+        assertThat(batch.columnIndex("missing"), equalTo(-1));
+    }
+
+    @Test
+    public void project_whenColumnsSharePrefix_thenEvaluatePrefixOncePerRecord() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Getter<Map<Integer, Integer>, Integer> shared = map -> {
+            calls.incrementAndGet();
+            return map.get(GOOD_KEY);
+        };
+
+        final ColumnarProjection<Map<Integer, Integer>> projection =
+            ColumnarProjection.<Map<Integer, Integer>>builder()
+                .intColumn("value", 0, shared)
+                .objectColumn("string", null, shared, (Getter<Integer, String>) String::valueOf)
+                .longColumn("negated", 0L, shared, (Getter<Integer, Long>) value -> -1L * value)
+                .build();
+        projection.project(Arrays.asList(MAP, MAP, MAP));
+
+        assertThat(calls.get(), equalTo(3));
+        assertThat(projection.toString(), containsString("nodes=3"));
+    }
+
+    @Test
+    public void project_whenGetterThrowsOrTypeMismatches_thenStoreDefaultValue() {
+        final ColumnarBatch batch = ColumnarProjection.<Map<Integer, Integer>>builder()
+            .intColumn("bad", DEFAULT_VALUE, BAD_GETTER)
+            .intColumn("string", DEFAULT_VALUE, (Getter<Map<Integer, Integer>, String>) map -> "1")
+            .build()
+            .project(Collections.singletonList(MAP));
+
+        assertThat(batch.getInts(0)[0], equalTo(DEFAULT_VALUE));
+        assertThat(batch.getInts(1)[0], equalTo(DEFAULT_VALUE));
+        assertThat(batch.isNull(1, 0), equalTo(true));
+    }
+
+    @Test
+    public void project_whenBatchIsReused_thenReplaceContents() {
+        final ColumnarProjection<Map<Integer, Integer>> projection =
+            ColumnarProjection.<Map<Integer, Integer>>builder()
+                .objectColumn("value", null, GOOD_GETTER)
+                .build();
+        final ColumnarBatch batch = projection.newBatch(4);
+
+        projection.project(HEADS, batch);
+        projection.project(Arrays.asList(null, MAP), batch);
+
+        assertThat(batch.size(), equalTo(2));
+        assertThat(Arrays.asList(batch.getObjects(0)), contains(null, GOOD_VALUE, null, null));
+        assertThat(batch.isNull(0, 0), equalTo(true));
+        assertThat(batch.isNull(0, 2), equalTo(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void project_whenBatchIsTooSmall_thenThrowIllegalArgumentException() {
+        final ColumnarProjection<Map<Integer, Integer>> projection =
+            ColumnarProjection.<Map<Integer, Integer>>builder()
+                .intColumn("value", 0, GOOD_GETTER)
+                .build();
+        projection.project(HEADS, projection.newBatch(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void project_whenBatchIsFromOtherProjection_thenThrowIllegalArgumentException() {
+        final ColumnarBatch otherBatch = ColumnarProjection.<Map<Integer, Integer>>builder()
+            .objectColumn("value", null, GOOD_GETTER)
+            .build()
+            .newBatch(HEADS.size());
+
+        ColumnarProjection.<Map<Integer, Integer>>builder()
+            .intColumn("value", 0, GOOD_GETTER)
+            .build()
+            .project(HEADS, otherBatch);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getInts_whenColumnHasOtherType_thenThrowIllegalArgumentException() {
+        ColumnarProjection.<Map<Integer, Integer>>builder()
+            .longColumn("value", 0L, GOOD_GETTER)
+            .build()
+            .project(HEADS)
+            .getInts(0);
+    }
+}
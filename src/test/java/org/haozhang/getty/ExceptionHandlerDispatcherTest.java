@@ -0,0 +1,175 @@
+package org.haozhang.getty;
+
+import org.haozhang.getty.ExceptionHandlerDispatcher.OverflowPolicy;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ExceptionHandlerDispatcherTest extends GettyTestSupport {
+    @Test
+    public void async_whenGetterThrowsException_thenRunHandlerOnWorkerThread() throws Exception {
+        final AtomicReference<Thread> handlerThread = new AtomicReference<>();
+        final CountDownLatch handled = new CountDownLatch(1);
+
+        try (ExceptionHandlerDispatcher dispatcher =
+                 new ExceptionHandlerDispatcher(1, OverflowPolicy.DROP)) {
+            final ExceptionHandlerConsumer<Map<Integer, Integer>> handler = (m, e) -> {
+                handlerThread.set(Thread.currentThread());
+                handled.countDown();
+            };
+
+            final Integer value = Getty.of(MAP)
+                .get((Getter<Map<Integer, Integer>, Integer>) BAD_GETTER, handler.async(dispatcher))
+                .get();
+
+            assertThat(value, nullValue());
+            assertThat(handled.await(5, TimeUnit.SECONDS), is(true));
+            assertThat(handlerThread.get(), not(sameInstance(Thread.currentThread())));
+        }
+    }
+
+    @Test
+    public void dispatch_givenDropPolicy_whenQueueIsFull_thenDropInvocation() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final ExceptionHandlerConsumer<Object> handler = (o, e) -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+        };
+
+        try (ExceptionHandlerDispatcher dispatcher =
+                 new ExceptionHandlerDispatcher(1, OverflowPolicy.DROP)) {
+            dispatcher.dispatch(handler, null, null); // Occupies the worker thread
+            assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+            dispatcher.dispatch(handler, null, null); // Fills the queue
+            dispatcher.dispatch(handler, null, null); // Dropped
+
+            assertThat(dispatcher.getPendingCount(), equalTo(1));
+            assertThat(dispatcher.getDroppedCount(), equalTo(1L));
+            release.countDown();
+        }
+
+        assertThat(calls.get(), equalTo(2));
+    }
+
+    @Test
+    public void dispatch_givenCallerRunsPolicy_whenQueueIsFull_thenRunOnCallingThread() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicReference<Thread> lastThread = new AtomicReference<>();
+        final ExceptionHandlerConsumer<Object> blockingHandler = (o, e) -> {
+            started.countDown();
+            await(release);
+        };
+
+        try (ExceptionHandlerDispatcher dispatcher =
+                 new ExceptionHandlerDispatcher(1, OverflowPolicy.CALLER_RUNS)) {
+            dispatcher.dispatch(blockingHandler, null, null);
+            assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+            dispatcher.dispatch(blockingHandler, null, null);
+            dispatcher.dispatch((o, e) -> lastThread.set(Thread.currentThread()), null, null);
+
+            assertThat(lastThread.get(), sameInstance(Thread.currentThread()));
+            assertThat(dispatcher.getDroppedCount(), equalTo(0L));
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void close_whenInvocationsArePending_thenRunThemBeforeReturning() {
+        final AtomicInteger calls = new AtomicInteger();
+        final ExceptionHandlerDispatcher dispatcher =
+            new ExceptionHandlerDispatcher(16, OverflowPolicy.DROP);
+
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch((o, e) -> calls.incrementAndGet(), null, null);
+        }
+        dispatcher.close();
+
+        assertThat(calls.get(), equalTo(10));
+        assertThat(dispatcher.getPendingCount(), equalTo(0));
+    }
+
+    @Test
+    public void close_whenDispatchesRaceWithClose_thenRunOrDropEveryInvocation() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            final AtomicInteger calls = new AtomicInteger();
+            final AtomicInteger dispatches = new AtomicInteger();
+            final ExceptionHandlerDispatcher dispatcher =
+                new ExceptionHandlerDispatcher(1 << 20, OverflowPolicy.DROP);
+            final CountDownLatch started = new CountDownLatch(4);
+
+            final Thread[] threads = new Thread[4];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    started.countDown();
+                    for (int j = 0; j < 10_000; j++) {
+                        dispatcher.dispatch((o, e) -> calls.incrementAndGet(), null, null);
+                        dispatches.incrementAndGet();
+                    }
+                });
+                threads[i].start();
+            }
+            started.await(5, TimeUnit.SECONDS);
+            dispatcher.close();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertThat(calls.get() + dispatcher.getDroppedCount(), equalTo((long) dispatches.get()));
+            assertThat(dispatcher.getPendingCount(), equalTo(0));
+        }
+    }
+
+    @Test
+    public void dispatch_whenHandlerThrowsError_thenReportItAndKeepRunningHandlers() throws Exception {
+        final AtomicReference<Throwable> reported = new AtomicReference<>();
+        final CountDownLatch handled = new CountDownLatch(1);
+        Getty.setEventSink((event, subject, exception) -> {
+            if (GettyEventSink.Event.ASYNC_HANDLER_FAILED == event) {
+                reported.set(exception);
+            }
+        });
+
+        try (ExceptionHandlerDispatcher dispatcher =
+                 new ExceptionHandlerDispatcher(16, OverflowPolicy.DROP)) {
+            dispatcher.dispatch((o, e) -> { throw new AssertionError(); }, null, null);
+            dispatcher.dispatch((o, e) -> handled.countDown(), null, null);
+
+            assertThat(handled.await(5, TimeUnit.SECONDS), is(true));
+            assertThat(reported.get(), instanceOf(AssertionError.class));
+        } finally {
+            Getty.setEventSink(GettyEventSink.NONE);
+        }
+    }
+
+    @Test
+    public void close_givenDefaultDispatcher_thenKeepRunningHandlers() throws Exception {
+        final CountDownLatch handled = new CountDownLatch(1);
+        final ExceptionHandlerDispatcher dispatcher = ExceptionHandlerDispatcher.getDefault();
+
+        dispatcher.close();
+        dispatcher.dispatch((o, e) -> handled.countDown(), null, null);
+
+        assertThat(handled.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(dispatcher.getDroppedCount(), equalTo(0L));
+    }
+
+    // Wait for a latch without leaking the checked exception into handler lambdas.
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.haozhang.getty;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FallbackSourcesTest extends GettyTestSupport {
+    private static final Supplier<Integer> MISSING = () -> null;
+    private static final Supplier<Integer> FAILING = () -> { throw new IllegalStateException(); };
+    private static final Supplier<Integer> DEFAULT = () -> DEFAULT_VALUE;
+
+    @Test
+    public void firstNonNull_whenEarlierSuppliersFail_thenReturnFirstValue() {
+        assertThat(
+            Getty.firstNonNull(MISSING, FAILING, DEFAULT, () -> GOOD_VALUE),
+            equalTo(DEFAULT_VALUE)
+        );
+        assertThat(Getty.firstNonNull(MISSING, FAILING), nullValue());
+    }
+
+    @Test
+    public void get_whenSourcesAreTried_thenCountEachOutcome() {
+        final FallbackSources<Integer> sources = FallbackSources.<Integer>builder()
+            .source("cache", MISSING)
+            .source("replica", FAILING)
+            .source("computed", DEFAULT)
+            .source("unused", () -> GOOD_VALUE)
+            .build();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(sources.get(), equalTo(DEFAULT_VALUE));
+        }
+
+        final List<FallbackSources.Stats> stats = sources.getStats();
+        assertThat(stats.get(0).getName(), equalTo("cache"));
+        assertThat(stats.get(0).getAttempts(), equalTo(10L));
+        assertThat(stats.get(0).getSuccessRate(), equalTo(0.0));
+        assertThat(stats.get(1).getFailures(), equalTo(10L));
+        assertThat(stats.get(2).getSuccesses(), equalTo(10L));
+        assertThat(stats.get(3).getAttempts(), equalTo(0L));
+        assertThat(stats.get(2).toString(), startsWith("computed{attempts=10, successRate=1.000"));
+    }
+
+    @Test
+    public void get_givenAdaptiveSources_whenEarlierSourceNeverSucceeds_thenOnlyProbeIt() {
+        final FallbackSources<Integer> sources = FallbackSources.<Integer>builder()
+            .source("cache", MISSING)
+            .source("computed", DEFAULT)
+            .adaptive()
+            .build();
+
+        for (int i = 0; i < FallbackSources.REORDER_PERIOD; i++) {
+            sources.get();
+        }
+        assertThat(sources.getStats().get(0).getName(), equalTo("computed"));
+
+        final long cacheAttempts = sources.getStats().get(1).getAttempts();
+        for (int i = 0; i < FallbackSources.PROBE_PERIOD; i++) {
+            assertThat(sources.get(), equalTo(DEFAULT_VALUE));
+        }
+        assertThat(sources.getStats().get(1).getAttempts(), equalTo(cacheAttempts + 1));
+    }
+
+    @Test
+    public void get_givenAdaptiveSources_whenDemotedSourceRecovers_thenTryItFirstAgain() {
+        final AtomicBoolean warm = new AtomicBoolean();
+        final FallbackSources<Integer> sources = FallbackSources.<Integer>builder()
+            .source("cache", () -> warm.get() ? GOOD_VALUE : null)
+            .source("computed", () -> {
+                LockSupport.parkNanos(10_000); // Much slower than the warm cache
+                return DEFAULT_VALUE;
+            })
+            .adaptive()
+            .build();
+
+        for (int i = 0; i < FallbackSources.REORDER_PERIOD; i++) {
+            sources.get();
+        }
+        assertThat(sources.getStats().get(0).getName(), equalTo("computed"));
+
+        warm.set(true);
+        for (int i = 0; i < 2 * FallbackSources.REORDER_PERIOD; i++) {
+            sources.get();
+        }
+        assertThat(sources.getStats().get(0).getName(), equalTo("cache"));
+        assertThat(sources.get(), equalTo(GOOD_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void build_whenNoSourceIsAdded_thenThrowException() {
+        FallbackSources.builder().build();
+    }
+}
@@ -0,0 +1,125 @@
+package org.haozhang.getty;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Allocation-rate gate for uncached chains. Run with "mvn -P allocation-gate verify" to fail the
+//   build if any of the benchmarks below allocates after warm-up.
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class GettyAllocationBenchmark extends GettyBenchmarkSupport {
+    // The maximum allowed allocation rate, leaving room for measurement noise
+    private static final double MAX_BYTES_PER_OPERATION = 1;
+
+    // The suffix of the normalized allocation rate reported by the GC profiler
+    private static final String ALLOCATION_RATE = "gc.alloc.rate.norm";
+
+    //==============================================================================================
+    // Benchmark Implementations
+    //==============================================================================================
+
+    private static final Getter<Integer, Integer> INCREMENT = i -> i + 1;
+    private static final Getter<Integer, Integer> NULL_INTEGER = i -> null;
+    private static final ExceptionHandlerConsumer<Integer> IGNORE = (i, e) -> { };
+
+    private static final Supplier<Integer> threeLinks = () -> Getty.uncached(MAP)
+        .get(GOOD_GETTER)
+        .get(INCREMENT)
+        .get(INCREMENT)
+        .get();
+
+    private static final Supplier<Integer> fourLinks_withDefaults = () -> Getty.uncached(MAP)
+        .get(GOOD_GETTER)
+        .getOrDefault(NULL_INTEGER, GOOD_VALUE)
+        .getOrDefault(INCREMENT, DEFAULT_VALUE)
+        .get(INCREMENT)
+        .get();
+
+    private static final Supplier<Integer> fiveLinks_withHandlers = () -> Getty.uncached(MAP)
+        .get(GOOD_GETTER, (m, e) -> DEFAULT_VALUE)
+        .get(INCREMENT, IGNORE)
+        .getNonNull(INCREMENT)
+        .getOrDefault(NULL_INTEGER, DEFAULT_VALUE, IGNORE)
+        .getNonNull(INCREMENT, IGNORE)
+        .get();
+
+    //==============================================================================================
+    // Benchmark Entry Points
+    //==============================================================================================
+
+    @Benchmark
+    public long uncached_threeLinks(State state, Blackhole blackhole) {
+        return benchmark(threeLinks, state, blackhole);
+    }
+
+    @Benchmark
+    public long uncached_fourLinks_withDefaults(State state, Blackhole blackhole) {
+        return benchmark(fourLinks_withDefaults, state, blackhole);
+    }
+
+    @Benchmark
+    public long uncached_fiveLinks_withHandlers(State state, Blackhole blackhole) {
+        return benchmark(fiveLinks_withHandlers, state, blackhole);
+    }
+
+    //==============================================================================================
+    // Gate
+    //==============================================================================================
+
+    // Run the benchmarks above with the GC profiler and fail if any of them allocates.
+    public static final class Gate {
+        public static void main(String... args) throws Exception {
+            gate();
+        }
+    }
+
+    private static void gate() throws Exception {
+        final Options options = new OptionsBuilder()
+            .include(GettyAllocationBenchmark.class.getName() + "\\.")
+            .addProfiler(GCProfiler.class)
+            .build();
+        final Collection<RunResult> results = new Runner(options).run();
+        final List<String> failures = new ArrayList<>();
+
+        for (RunResult result : results) {
+            final String benchmark = result.getParams().getBenchmark();
+            final Result<?> allocationRate = getAllocationRate(result);
+
+            if (null == allocationRate) {
+                failures.add(benchmark + ": no allocation rate was reported");
+            } else if (allocationRate.getScore() > MAX_BYTES_PER_OPERATION) {
+                failures.add(benchmark + ": " + allocationRate.getScore() + " B/op");
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new AssertionError("Allocation gate failed:\n" + String.join("\n", failures));
+        }
+    }
+
+    // Return the normalized allocation rate of a benchmark run, which is reported with a prefix.
+    private static Result<?> getAllocationRate(RunResult result) {
+        for (Map.Entry<String, Result> entry : result.getSecondaryResults().entrySet()) {
+            if (entry.getKey().endsWith(ALLOCATION_RATE)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
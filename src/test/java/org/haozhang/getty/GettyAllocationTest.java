@@ -0,0 +1,205 @@
+package org.haozhang.getty;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assume.assumeTrue;
+
+// Allocation budgets for the hot paths, checked with every build. Each path is measured in a JVM
+//   of its own (like the JMH allocation gate, see GettyAllocationBenchmark), so that escape
+//   analysis is not defeated by type profiles polluted by other tests. Paths which must allocate
+//   are compared with a reference operation allocating the same objects in the same JVM, so that
+//   the budgets do not depend on the object layout of the JVM. Latency is only reported, since it
+//   depends on the load of the machine running the build.
+public class GettyAllocationTest extends GettyTestSupport {
+    // Paths which escape analysis should make allocation-free, with room for measurement noise
+    private static final double NO_ALLOCATION = 1;
+
+    // The smallest object (a header and a single field), so that any extra allocation fails
+    private static final double ONE_OBJECT = 16;
+
+    private static final Getter<Integer, Integer> INCREMENT = i -> i + 1;
+    private static final Getter<Integer, Integer> NULL_INTEGER = i -> null;
+    private static final ExceptionHandlerConsumer<Integer> IGNORE = (i, e) -> { };
+
+    private static final Supplier<Integer> THREE_LINKS = () -> Getty.uncached(MAP)
+        .get(GOOD_GETTER)
+        .get(INCREMENT)
+        .get(INCREMENT)
+        .get();
+
+    private static final Supplier<Integer> FOUR_LINKS_WITH_DEFAULTS = () -> Getty.uncached(MAP)
+        .get(GOOD_GETTER)
+        .getOrDefault(NULL_INTEGER, GOOD_VALUE)
+        .getOrDefault(INCREMENT, DEFAULT_VALUE)
+        .get(INCREMENT)
+        .get();
+
+    private static final Supplier<Integer> FIVE_LINKS_WITH_HANDLERS = () -> Getty.uncached(MAP)
+        .get(GOOD_GETTER, (m, e) -> DEFAULT_VALUE)
+        .get(INCREMENT, IGNORE)
+        .getNonNull(INCREMENT)
+        .getOrDefault(NULL_INTEGER, DEFAULT_VALUE, IGNORE)
+        .getNonNull(INCREMENT, IGNORE)
+        .get();
+
+    private static final Supplier<Integer> CACHED_KEPT = () -> Getty.cached(MAP)
+        .get(GOOD_GETTER)
+        .get(INCREMENT)
+        .get(INCREMENT)
+        .getAndCache();
+
+    private static final Supplier<Integer> CACHED_ENDED = () -> Getty.cached(MAP)
+        .get(GOOD_GETTER)
+        .get(INCREMENT)
+        .get(INCREMENT)
+        .get();
+
+    private static final Supplier<Integer> STATIC_GET = () ->
+        Getty.get((Supplier<Integer>) GOOD_SUPPLIER);
+
+    private static final Supplier<Integer> STATIC_GET_OR_DEFAULT = () ->
+        Getty.getOrDefault((Supplier<Integer>) NULL_SUPPLIER, DEFAULT_VALUE);
+
+    private static final Supplier<Integer> STATIC_GET_OR_DEFAULT_FAILING = () ->
+        Getty.getOrDefault((Supplier<Integer>) BAD_SUPPLIER, DEFAULT_VALUE);
+
+    //==============================================================================================
+    // Reference Operations
+    //==============================================================================================
+
+    // The values held by the Getty instances of CACHED_ENDED
+    private static final Object[] CHAIN_VALUES = {MAP, GOOD_VALUE, GOOD_VALUE + 1, GOOD_VALUE + 2};
+
+    private static final Map<Object, GettyChain> REFERENCE_CACHE = new ConcurrentHashMap<>();
+
+    // What CACHED_ENDED must allocate: a new chain in a cache, and an instance per link inserted
+    //   with a lambda capturing the value and the chain, as Getty.getCachedInstance() does
+    private static final Supplier<Object> NEW_CHAIN = () -> {
+        final GettyChain chain =
+            REFERENCE_CACHE.computeIfAbsent(MAP, key -> new GettyChain(key, REFERENCE_CACHE));
+        for (Object value : CHAIN_VALUES) {
+            chain.computeIfAbsent(value, __ -> newInstance(value, chain));
+        }
+        chain.clear();
+        REFERENCE_CACHE.remove(MAP, chain);
+        return chain;
+    };
+
+    // What STATIC_GET_OR_DEFAULT_FAILING must allocate: the exception thrown by the supplier
+    private static final Supplier<Integer> CAUGHT_EXCEPTION = () -> {
+        try {
+            return (Integer) BAD_SUPPLIER.get();
+        } catch (RuntimeException exception) {
+            return DEFAULT_VALUE;
+        }
+    };
+
+    @BeforeClass
+    public static void setUpClass() {
+        assumeTrue(AllocationMeter.isSupported());
+    }
+
+    //==============================================================================================
+    // Uncached Chains
+    //==============================================================================================
+
+    @Test
+    public void uncached_whenThreeLinks_thenDoNotAllocate() {
+        assertDoesNotAllocate("THREE_LINKS");
+    }
+
+    @Test
+    public void uncached_whenFourLinksWithDefaults_thenDoNotAllocate() {
+        assertDoesNotAllocate("FOUR_LINKS_WITH_DEFAULTS");
+    }
+
+    @Test
+    public void uncached_whenFiveLinksWithHandlers_thenDoNotAllocate() {
+        assertDoesNotAllocate("FIVE_LINKS_WITH_HANDLERS");
+    }
+
+    //==============================================================================================
+    // Cached Chains
+    //==============================================================================================
+
+    @Test
+    public void cached_whenChainIsKept_thenDoNotAllocate() {
+        assertDoesNotAllocate("CACHED_KEPT");
+    }
+
+    @Test
+    public void cached_whenChainEnds_thenOnlyAllocateNewChain() {
+        assertAllocatesAsReference("CACHED_ENDED", "NEW_CHAIN");
+    }
+
+    //==============================================================================================
+    // Static Getters
+    //==============================================================================================
+
+    @Test
+    public void staticGet_whenSupplierSucceeds_thenDoNotAllocate() {
+        assertDoesNotAllocate("STATIC_GET");
+    }
+
+    @Test
+    public void staticGetOrDefault_whenSupplierReturnsNull_thenDoNotAllocate() {
+        assertDoesNotAllocate("STATIC_GET_OR_DEFAULT");
+    }
+
+    @Test
+    public void staticGetOrDefault_whenSupplierFails_thenOnlyAllocateException() {
+        assertAllocatesAsReference("STATIC_GET_OR_DEFAULT_FAILING", "CAUGHT_EXCEPTION");
+    }
+
+    //==============================================================================================
+    // Helper Methods
+    //==============================================================================================
+
+    // Measure the operation held by a given field in a new JVM and check that it does not
+    //   allocate.
+    private static void assertDoesNotAllocate(String field) {
+        final AllocationMeter.Measurement measurement = measure(field).get(0);
+
+        assertThat(
+            "Allocation budget exceeded: " + measurement,
+            measurement.getBytesPerOperation(), lessThan(NO_ALLOCATION)
+        );
+    }
+
+    // Measure the operation held by a given field and a reference operation in the same new JVM,
+    //   and check that the operation allocates less than one object more than the reference.
+    private static void assertAllocatesAsReference(String field, String referenceField) {
+        final List<AllocationMeter.Measurement> measurements = measure(field, referenceField);
+        final AllocationMeter.Measurement measurement = measurements.get(0);
+        final AllocationMeter.Measurement reference = measurements.get(1);
+
+        assertThat(
+            "Allocation budget exceeded: " + measurement + " (reference: " + reference + ")",
+            measurement.getBytesPerOperation() - reference.getBytesPerOperation(),
+            lessThan(ONE_OBJECT)
+        );
+    }
+
+    // Measure the operations held by given fields in a new JVM, and report the measurements.
+    private static List<AllocationMeter.Measurement> measure(String... fields) {
+        final List<AllocationMeter.Measurement> measurements =
+            AllocationMeter.measureInFork(GettyAllocationTest.class, fields);
+        for (int i = 0; i < fields.length; i++) {
+            System.out.println(fields[i] + ": " + measurements.get(i));
+        }
+        return measurements;
+    }
+
+    // Stand in for the private Getty constructor, with an instance of the same size.
+    private static Getty<Object> newInstance(Object value, GettyChain chain) {
+        return Getty.uncached(value);
+    }
+}
@@ -0,0 +1,72 @@
+package org.haozhang.getty;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GettyDeadlineTest extends GettyTestSupport {
+    // A getter which takes longer than the budgets used below
+    private static final Getter<Map<Integer, Integer>, Map<Integer, Integer>> SLOW_GETTER = map -> {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException exception) {
+            throw new IllegalStateException(exception);
+        }
+        return map;
+    };
+
+    @Test
+    public void withDeadline_whenBudgetRemains_thenCallGetters() {
+        assertThat(
+            Getty.withDeadline(MAP, 1, TimeUnit.MINUTES).get(SLOW_GETTER).get(GOOD_GETTER).get(),
+            equalTo(GOOD_VALUE)
+        );
+    }
+
+    @Test
+    public void withDeadline_whenBudgetIsExhausted_thenSkipRemainingGetters() {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicReference<Exception> handled = new AtomicReference<>();
+        final ExceptionHandlerConsumer<Map<Integer, Integer>> handler =
+            (map, exception) -> handled.set(exception);
+
+        final Integer value = Getty.withDeadline(MAP, 5, TimeUnit.MILLISECONDS)
+            .get(SLOW_GETTER)
+            .get(map -> calls.incrementAndGet(), handler)
+            .getOrDefault(i -> calls.incrementAndGet(), DEFAULT_VALUE)
+            .get();
+
+        assertThat(value, equalTo(DEFAULT_VALUE));
+        assertThat(calls.get(), equalTo(0));
+        assertThat(handled.get(), sameInstance(DeadlineExceededException.INSTANCE));
+        assertThat(handled.get().getStackTrace().length, equalTo(0));
+    }
+
+    @Test
+    public void withDeadline_whenBudgetIsExhausted_thenCallExceptionHandlerFunction() {
+        assertThat(
+            Getty.withDeadline(MAP, 0, TimeUnit.NANOSECONDS)
+                .get(GOOD_GETTER, (map, exception) ->
+                    exception instanceof DeadlineExceededException ? -1 : 0)
+                .get(),
+            equalTo(-1)
+        );
+    }
+
+    @Test
+    public void withDeadline_whenRepeating_thenStopAtDeadline() {
+        final Getter<Map<Integer, Integer>, Map<Integer, Integer>> self = map -> map;
+
+        // Without a deadline, this walk would only end at the (default) maximum depth.
+        assertThat(
+            Getty.withDeadline(MAP, 10, TimeUnit.MILLISECONDS).repeat(self, Integer.MAX_VALUE, false).get(),
+            nullValue()
+        );
+    }
+}
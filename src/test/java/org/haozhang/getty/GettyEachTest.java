@@ -0,0 +1,142 @@
+package org.haozhang.getty;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GettyEachTest extends GettyTestSupport {
+    // [MAP, null, {1=null}, MAP]
+    private static final List<Map<Integer, Integer>> MAPS =
+        Arrays.asList(MAP, null, Collections.singletonMap(GOOD_KEY, null), MAP);
+
+    @Test
+    public void getEach_whenElementsResolve_thenSkipNullValues() {
+        final List<Integer> values = Getty.of(MAPS)
+            .getEach(maps -> maps)
+            .get(GOOD_GETTER)
+            .collect(Collectors.toList());
+
+        assertThat(values, contains(GOOD_VALUE, GOOD_VALUE));
+    }
+
+    @Test
+    public void getEach_whenGetterFails_thenUseExceptionHandlerOrDefault() {
+        final Getter<Map<Integer, Integer>, Integer> badGetter = map -> map.get(GOOD_KEY) + 0;
+
+        assertThat(
+            Getty.of(MAPS).getEach(maps -> maps)
+                .get(badGetter, (map, exception) -> DEFAULT_VALUE)
+                .collect(Collectors.toList()),
+            contains(GOOD_VALUE, DEFAULT_VALUE, GOOD_VALUE)
+        );
+        assertThat(
+            Getty.of(MAPS).getEach(maps -> maps)
+                .getOrDefault(NULL_GETTER, DEFAULT_VALUE)
+                .collect(Collectors.toList()),
+            contains(DEFAULT_VALUE, DEFAULT_VALUE, DEFAULT_VALUE)
+        );
+    }
+
+    @Test
+    public void getEach_whenCollectionIsMissing_thenBeEmpty() {
+        final List<Object> values = new ArrayList<>();
+
+        Getty.of(MAP).getEach(map -> (Iterable<Object>) null).forEach(values::add);
+        Getty.of(MAP).getEach(map -> { throw new RuntimeException(); }).forEach(values::add);
+        Getty.of(MAP).getEachOfArray(map -> (Object[]) null).forEach(values::add);
+
+        assertThat(values, empty());
+    }
+
+    @Test
+    public void flatGet_whenNested_thenFlattenLazily() {
+        final AtomicInteger calls = new AtomicInteger();
+        final GettyEach<Integer> each = Getty.of(Arrays.asList(MAPS, null, MAPS))
+            .getEach(lists -> lists)
+            .flatGet(maps -> { calls.incrementAndGet(); return maps; })
+            .get(GOOD_GETTER);
+
+        assertThat(calls.get(), equalTo(0)); // Nothing is evaluated before a terminal step.
+        assertThat(each.collect(Collectors.counting()), equalTo(4L));
+        assertThat(calls.get(), equalTo(2));
+    }
+
+    @Test
+    public void flatGetArray_whenNested_thenFlatten() {
+        final String[][] table = {{"a", null}, null, {"b"}};
+
+        assertThat(
+            Getty.of(table).getEachOfArray(rows -> rows).flatGetArray(row -> row)
+                .collect(Collectors.joining()),
+            equalTo("ab")
+        );
+    }
+
+    @Test
+    public void getEach_whenIterationThrows_thenEndIterationAndCallExceptionHandler() {
+        final List<Object> values = new ArrayList<>();
+        final List<Exception> exceptions = new ArrayList<>();
+
+        Getty.of(MAP)
+            .getEach(map -> failingAfterFirstElement(), (map, e) -> exceptions.add(e))
+            .forEach(values::add);
+        Getty.of(MAP)
+            .getEach(map -> () -> { throw new IllegalStateException(); })
+            .forEach(values::add);
+
+        assertThat(values, contains(GOOD_VALUE));
+        assertThat(exceptions, contains(instanceOf(IllegalStateException.class)));
+    }
+
+    @Test
+    public void flatGet_whenIterationThrows_thenSkipRestOfCollection() {
+        final List<Map<Integer, Integer>> failed = new ArrayList<>();
+
+        final List<Integer> values = Getty.of(Arrays.asList(MAP, MAP))
+            .getEach(maps -> maps)
+            .flatGet(map -> failingAfterFirstElement(), (map, exception) -> failed.add(map))
+            .collect(Collectors.toList());
+
+        assertThat(values, contains(GOOD_VALUE, GOOD_VALUE));
+        assertThat(failed, contains(MAP, MAP));
+    }
+
+    @Test
+    public void getEach_whenCached_thenUncacheChain() {
+        Getty.cached(MAPS).getEach(maps -> maps).forEach(map -> { });
+
+        assertThat(CACHE.containsKey(MAPS), equalTo(false));
+    }
+
+    // An Iterable which fails after its first element, like a lazily loaded association whose
+    //   session was closed
+    private static Iterable<Integer> failingAfterFirstElement() {
+        return () -> new Iterator<Integer>() {
+            private boolean started;
+
+            @Override
+            public boolean hasNext() {
+                if (started) {
+                    throw new IllegalStateException();
+                }
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                started = true;
+                return GOOD_VALUE;
+            }
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package org.haozhang.getty;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GettyEventSinkTest extends GettyTestSupport {
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    private final GettyEventSink recordingSink = (event, subject, exception) -> events.add(
+        event + ":" + subject + ":" + (null != exception ? exception.getClass().getSimpleName() : null)
+    );
+
+    @After
+    public void restoreSink() {
+        Getty.setEventSink(GettyEventSink.NONE);
+    }
+
+    @Test
+    public void eventSink_byDefault_thenIgnoreEvents() {
+        assertThat(Getty.getEventSink(), sameInstance(GettyEventSink.NONE));
+        assertThat(Getty.cached(MAP).get(GOOD_GETTER).get(), equalTo(GOOD_VALUE));
+    }
+
+    @Test
+    public void eventSink_whenCachedChainEnds_thenReportUncaching() {
+        Getty.setEventSink(recordingSink);
+        Getty.cached(MAP).get(GOOD_GETTER).get();
+
+        assertThat(events, contains("CHAIN_UNCACHED:" + MAP + ":null"));
+    }
+
+    @Test
+    public void eventSink_whenSuppliersFail_thenReportExceptions() {
+        Getty.setEventSink(recordingSink);
+        Getty.getOrDefault((Supplier<Integer>) BAD_SUPPLIER, (Supplier<Integer>) BAD_SUPPLIER);
+
+        assertThat(events, contains(
+            "SUPPLIER_FAILED:null:RuntimeException",
+            "DEFAULT_SUPPLIER_FAILED:null:RuntimeException"
+        ));
+    }
+
+    @Test
+    public void asyncEventSink_whenEventsArrive_thenDeliverOnWorkerThread() throws Exception {
+        final CountDownLatch delivered = new CountDownLatch(3);
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        try (AsyncEventSink sink = new AsyncEventSink((event, subject, exception) -> {
+            threads.add(Thread.currentThread());
+            recordingSink.onEvent(event, subject, exception);
+            delivered.countDown();
+        }, 4)) {
+            Getty.setEventSink(sink);
+            Getty.cached(MAP).get(GOOD_GETTER).get();
+            Getty.cached(MAP).get(GOOD_GETTER).get();
+            Getty.get((Supplier<Integer>) BAD_SUPPLIER);
+
+            assertThat(delivered.await(5, TimeUnit.SECONDS), is(true));
+            assertThat(sink.getDroppedCount(), equalTo(0L));
+        }
+
+        assertThat(events, hasSize(3));
+        assertThat(threads, everyItem(not(sameInstance(Thread.currentThread()))));
+    }
+
+    @Test
+    public void asyncEventSink_whenBufferIsFull_thenDropEvents() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try (AsyncEventSink sink = new AsyncEventSink((event, subject, exception) -> {
+            started.countDown();
+            await(release);
+        }, 2)) {
+            sink.onEvent(GettyEventSink.Event.CHAIN_UNCACHED, MAP, null); // Occupies the worker thread
+            assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+            sink.onEvent(GettyEventSink.Event.CHAIN_UNCACHED, MAP, null); // Fills the ring buffer
+            sink.onEvent(GettyEventSink.Event.CHAIN_UNCACHED, MAP, null);
+            sink.onEvent(GettyEventSink.Event.CHAIN_UNCACHED, MAP, null); // Dropped
+
+            assertThat(sink.getDroppedCount(), equalTo(1L));
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void asyncEventSink_whenDelegateThrowsError_thenKeepDelivering() throws Exception {
+        final CountDownLatch delivered = new CountDownLatch(2);
+
+        try (AsyncEventSink sink = new AsyncEventSink((event, subject, exception) -> {
+            delivered.countDown();
+            throw new AssertionError();
+        }, 4)) {
+            sink.onEvent(GettyEventSink.Event.CHAIN_UNCACHED, MAP, null);
+            sink.onEvent(GettyEventSink.Event.CHAIN_UNCACHED, MAP, null);
+
+            assertThat(delivered.await(5, TimeUnit.SECONDS), is(true));
+            assertThat(sink.getDroppedCount(), equalTo(0L));
+        }
+    }
+
+    @Test
+    public void asyncEventSink_whenEventsRaceWithClose_thenDeliverOrDropEveryEvent() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            final AtomicInteger delivered = new AtomicInteger();
+            final AtomicInteger sent = new AtomicInteger();
+            final AsyncEventSink sink =
+                new AsyncEventSink((event, subject, exception) -> delivered.incrementAndGet(), 1 << 16);
+            final CountDownLatch started = new CountDownLatch(4);
+
+            final Thread[] threads = new Thread[4];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    started.countDown();
+                    for (int j = 0; j < 10_000; j++) {
+                        sink.onEvent(GettyEventSink.Event.CHAIN_UNCACHED, MAP, null);
+                        sent.incrementAndGet();
+                    }
+                });
+                threads[i].start();
+            }
+            started.await(5, TimeUnit.SECONDS);
+            sink.close();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertThat(delivered.get() + sink.getDroppedCount(), equalTo((long) sent.get()));
+        }
+    }
+
+    @Test
+    public void slf4jEventSink_whenEventsArrive_thenLogWithoutThrowing() {
+        Getty.setEventSink(new Slf4jEventSink());
+        Getty.cached(MAP).get(GOOD_GETTER).get();
+        assertThat(Getty.get((Supplier<Integer>) BAD_SUPPLIER), nullValue());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.haozhang.getty;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GettyProcessorTest extends GettyTestSupport {
+    private static final Map<Integer, Integer> NULL_MAP = Collections.singletonMap(GOOD_KEY, null);
+
+    // Returns null for maps without GOOD_KEY and throws for NULL_MAP
+    private static final Getter<Map<Integer, Integer>, Integer> UNBOXING_GETTER =
+        map -> map.containsKey(GOOD_KEY) ? (Integer) (map.get(GOOD_KEY) + 0) : null;
+
+    @Test
+    public void processor_whenElementsArrive_thenApplyGetterAndHonourDemand() {
+        final ListPublisher<Map<Integer, Integer>> publisher =
+            new ListPublisher<>(Collections.nCopies(10, MAP));
+        final GettyProcessor<Map<Integer, Integer>, Integer> processor =
+            new GettyProcessor<>(GOOD_GETTER, ExceptionHandlerFunction.returnNull(), 4);
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        assertThat(publisher.requests, contains(4L)); // Prefetched before any downstream demand
+        assertThat(subscriber.elements, empty());
+
+        subscriber.subscription.request(2);
+        assertThat(subscriber.elements, contains(GOOD_VALUE, GOOD_VALUE));
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.elements, hasSize(10));
+        assertThat(subscriber.completed, equalTo(true));
+        assertThat(publisher.requests, contains(4L, 3L, 3L)); // Replenished 3 at a time
+    }
+
+    @Test
+    public void processor_whenGetterFails_thenRouteToExceptionHandler() {
+        final ListPublisher<Map<Integer, Integer>> publisher =
+            new ListPublisher<>(Arrays.asList(MAP, NULL_MAP, Collections.emptyMap(), MAP));
+        final GettyProcessor<Map<Integer, Integer>, Integer> processor =
+            GettyProcessor.of(UNBOXING_GETTER, (map, exception) -> DEFAULT_VALUE);
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(10);
+
+        // The empty map yields null and is dropped instead of cancelling the stream.
+        assertThat(subscriber.elements, contains(GOOD_VALUE, DEFAULT_VALUE, GOOD_VALUE));
+        assertThat(subscriber.completed, equalTo(true));
+        assertThat(subscriber.error, nullValue());
+    }
+
+    @Test
+    public void processor_whenExceptionHandlerFails_thenCancelUpstreamAndFail() {
+        final ListPublisher<Map<Integer, Integer>> publisher =
+            new ListPublisher<>(Arrays.asList(MAP, NULL_MAP, MAP));
+        final GettyProcessor<Map<Integer, Integer>, Integer> processor =
+            GettyProcessor.of(UNBOXING_GETTER, ExceptionHandlerFunction.rethrowException());
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+
+        processor.subscribe(subscriber);
+        publisher.subscribe(processor);
+        subscriber.subscription.request(10);
+
+        assertThat(subscriber.elements, empty()); // The error discards the buffered result.
+        assertThat(subscriber.error, notNullValue());
+        assertThat(publisher.cancelled, equalTo(true));
+    }
+
+    @Test
+    public void processor_whenDownstreamCancels_thenCancelUpstream() {
+        final ListPublisher<Map<Integer, Integer>> publisher =
+            new ListPublisher<>(Collections.nCopies(10, MAP));
+        final GettyProcessor<Map<Integer, Integer>, Integer> processor = GettyProcessor.of(GOOD_GETTER);
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+
+        assertThat(subscriber.elements, hasSize(1));
+        assertThat(subscriber.completed, equalTo(false));
+        assertThat(publisher.cancelled, equalTo(true));
+    }
+
+    @Test
+    public void processor_whenRequestIsNotPositive_thenFail() {
+        final GettyProcessor<Map<Integer, Integer>, Integer> processor = GettyProcessor.of(GOOD_GETTER);
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+
+        new ListPublisher<>(Collections.singletonList(MAP)).subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        assertThat(subscriber.error, instanceOf(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void processor_whenErrorFollowsInvalidRequest_thenSignalFirstErrorOnce() {
+        final GettyProcessor<Map<Integer, Integer>, Integer> processor = GettyProcessor.of(GOOD_GETTER);
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+
+        new ListPublisher<>(Collections.nCopies(10, MAP)).subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        processor.onError(new IllegalStateException());
+
+        assertThat(subscriber.error, instanceOf(IllegalArgumentException.class));
+        assertThat(subscriber.terminations, equalTo(1));
+    }
+
+    @Test
+    public void processor_whenInvalidRequestRacesWithError_thenSignalOneErrorOnly() throws Exception {
+        for (int round = 0; round < 1_000; round++) {
+            final GettyProcessor<Map<Integer, Integer>, Integer> processor = GettyProcessor.of(GOOD_GETTER);
+            final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+            final IllegalStateException upstreamError = new IllegalStateException();
+
+            new ListPublisher<>(Collections.nCopies(10, MAP)).subscribe(processor);
+            processor.subscribe(subscriber);
+            final Thread requester = new Thread(() -> subscriber.subscription.request(0));
+            final Thread failer = new Thread(() -> processor.onError(upstreamError));
+            requester.start();
+            failer.start();
+            requester.join();
+            failer.join();
+
+            assertThat(subscriber.terminations, equalTo(1));
+            assertThat(subscriber.completed, equalTo(false));
+            assertThat(subscriber.error, anyOf(
+                instanceOf(IllegalArgumentException.class), sameInstance(upstreamError)
+            ));
+        }
+    }
+
+    @Test
+    public void subscribe_whenSubscribedTwice_thenRejectSecondSubscriber() {
+        final GettyProcessor<Map<Integer, Integer>, Integer> processor = GettyProcessor.of(GOOD_GETTER);
+        final RecordingSubscriber<Integer> second = new RecordingSubscriber<>();
+
+        processor.subscribe(new RecordingSubscriber<>());
+        processor.subscribe(second);
+
+        assertThat(second.error, instanceOf(IllegalStateException.class));
+    }
+
+    //==============================================================================================
+    // Helper Classes
+    //==============================================================================================
+
+    // A synchronous publisher emitting the elements of a list, recording every request
+    private static final class ListPublisher<T> implements Publisher<T> {
+        private final Iterator<T> iterator;
+        private final List<Long> requests = new ArrayList<>();
+        private boolean cancelled;
+        private boolean emitting;
+        private long demand;
+
+        private ListPublisher(List<T> elements) {
+            this.iterator = elements.iterator();
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super T> subscriber) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    requests.add(n);
+                    demand += n;
+                    if (emitting) {
+                        return;
+                    }
+
+                    emitting = true;
+                    while (demand > 0 && !cancelled && iterator.hasNext()) {
+                        demand--;
+                        subscriber.onNext(iterator.next());
+                    }
+                    if (!cancelled && !iterator.hasNext()) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                    }
+                    emitting = false;
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static final class RecordingSubscriber<T> implements Subscriber<T> {
+        private final List<T> elements = new ArrayList<>();
+        private Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+        private volatile int terminations;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T element) {
+            elements.add(element);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminations++;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminations++;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.haozhang.getty;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GettyRepeatTest extends GettyTestSupport {
+    @Test
+    public void repeat_whenParentsEndInNull_thenReturnRoot() {
+        final Node leaf = Node.list(100_000); // Deep enough to overflow the stack if recursive
+
+        assertThat(Getty.of(leaf).repeat(Node::getParent).get(Node::getId).get(), equalTo(0));
+    }
+
+    @Test
+    public void repeat_whenGetterThrows_thenReturnNull() {
+        final Node leaf = Node.list(3);
+
+        assertThat(
+            Getty.of(leaf).repeat(node -> node.getId() > 1 ? node.getParent() : node.fail()).get(),
+            nullValue()
+        );
+        assertThat(
+            Getty.of(leaf)
+                .repeat(node -> node.getId() > 1 ? node.getParent() : node.fail())
+                .getOrDefault(Node::getId, -1)
+                .get(),
+            equalTo(-1)
+        );
+    }
+
+    @Test
+    public void repeat_whenMaxDepthIsGiven_thenCallGetterAtMostMaxDepthTimes() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Getter<Node, Node> getParent = node -> {
+            calls.incrementAndGet();
+            return node.getParent();
+        };
+
+        // 3 hops take 4 calls, the last one returning null.
+        assertThat(Getty.of(Node.list(4)).repeat(getParent, 4, true).get(Node::getId).get(), equalTo(0));
+        assertThat(calls.getAndSet(0), equalTo(4));
+
+        assertThat(Getty.of(Node.list(4)).repeat(getParent, 3, true).get(), nullValue());
+        assertThat(calls.getAndSet(0), equalTo(3));
+
+        assertThat(Getty.of(Node.list(10)).repeatUntil(getParent, node -> false, 5, true).get(), nullValue());
+        assertThat(calls.getAndSet(0), equalTo(5));
+    }
+
+    @Test
+    public void repeat_whenCycleIsFound_thenReturnNull() {
+        final Node leaf = Node.list(50);
+        leaf.getParent().getParent().getParent().parent = leaf; // 4-node cycle
+
+        assertThat(Getty.of(leaf).repeat(Node::getParent).get(), nullValue());
+        assertThat(Getty.of(Node.list(50)).repeat(Node::getParent, 10, false).get(), nullValue());
+    }
+
+    @Test
+    public void repeatUntil_whenPredicateMatches_thenReturnFirstMatch() {
+        final Node leaf = Node.list(10);
+
+        assertThat(
+            Getty.of(leaf).repeatUntil(Node::getParent, node -> node.getId() % 4 == 0).get(Node::getId).get(),
+            equalTo(8)
+        );
+        assertThat(Getty.of(leaf).repeatUntil(Node::getParent, node -> true).get(), sameInstance(leaf));
+        assertThat(Getty.of(leaf).repeatUntil(Node::getParent, node -> false).get(), nullValue());
+        assertThat(
+            Getty.of(leaf).repeatUntil(Node::getParent, node -> node.getId() == 0, 5, true).get(),
+            nullValue()
+        );
+    }
+
+    @Test
+    public void repeatUntil_whenCycleIsNotDetected_thenStopAtMaxDepth() {
+        final Node node = new Node(1, null);
+        node.parent = node;
+
+        assertThat(
+            Getty.of(node).repeatUntil(Node::getParent, other -> false, 1_000, false).get(),
+            nullValue()
+        );
+    }
+
+    //==============================================================================================
+    // Helper Classes
+    //==============================================================================================
+
+    private static final class Node {
+        private final int id;
+        private Node parent;
+
+        private Node(int id, Node parent) {
+            this.id = id;
+            this.parent = parent;
+        }
+
+        // Return the last node of a list of nodes with IDs 0 to (length - 1), linked by parent.
+        private static Node list(int length) {
+            Node node = null;
+            for (int id = 0; id < length; id++) {
+                node = new Node(id, node);
+            }
+            return node;
+        }
+
+        private int getId() {
+            return id;
+        }
+
+        private Node getParent() {
+            return parent;
+        }
+
+        private Node fail() {
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.haozhang.getty;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GettyScopeTest extends GettyTestSupport {
+    private final Map<Integer, Integer> head = Collections.singletonMap(GOOD_KEY, GOOD_VALUE);
+
+    @Test
+    public void cached_whenScopeIsOpen_thenCacheInScope() {
+        try (GettyScope scope = GettyScope.open()) {
+            assertThat(Getty.cached(head).get(GOOD_GETTER).getAndCache(), equalTo(GOOD_VALUE));
+            assertThat(CACHE.containsKey(head), equalTo(false));
+            assertThat(scope.getChainCount(), equalTo(1));
+
+            // Reusing the chain within the scope returns the same instances.
+            assertThat(Getty.cached(head), sameInstance(Getty.cached(head)));
+
+            // Ending the chain removes it from the scope.
+            Getty.cached(head).get();
+            assertThat(scope.getChainCount(), equalTo(0));
+        }
+    }
+
+    @Test
+    public void close_whenChainsAreLeftOver_thenReleaseThem() {
+        final GettyScope scope = GettyScope.open();
+        Getty.cached(head).get(GOOD_GETTER).getAndCache();
+        Getty.cached(MAP).getAndCache();
+        scope.close();
+
+        assertThat(scope.isOpen(), equalTo(false));
+        assertThat(scope.getChainCount(), equalTo(0));
+
+        // Chains started after the scope is closed are cached globally again.
+        Getty.cached(head).getAndCache();
+        assertThat(CACHE.containsKey(head), equalTo(true));
+        Getty.cached(head).get();
+        assertThat(CACHE.containsKey(head), equalTo(false));
+    }
+
+    @Test
+    public void close_whenNested_thenRestoreOuterScope() {
+        try (GettyScope outer = GettyScope.open()) {
+            try (GettyScope inner = GettyScope.open()) {
+                Getty.cached(head).getAndCache();
+                assertThat(inner.getChainCount(), equalTo(1));
+            }
+
+            Getty.cached(head).getAndCache();
+            assertThat(outer.getChainCount(), equalTo(1));
+        }
+    }
+
+    @Test
+    public void wrap_whenRunOnAnotherThread_thenCacheInScope() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (GettyScope scope = GettyScope.open()) {
+            executor.submit(scope.wrap(() -> { Getty.cached(head).getAndCache(); })).get();
+            assertThat(executor.submit(scope.wrap(() -> scope.getChainCount())).get(), equalTo(1));
+
+            // The scope is not left open on the executor thread.
+            executor.submit(() -> { Getty.cached(MAP).getAndCache(); }).get();
+            assertThat(scope.getChainCount(), equalTo(1));
+            assertThat(CACHE.containsKey(MAP), equalTo(true));
+        } finally {
+            Getty.cached(MAP).get();
+            executor.shutdown();
+        }
+    }
+}
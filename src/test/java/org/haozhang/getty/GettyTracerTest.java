@@ -0,0 +1,120 @@
+package org.haozhang.getty;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GettyTracerTest extends GettyTestSupport {
+    private final GettyTracer tracer = GettyTracer.getDefault();
+
+    @Before
+    public void enableTracing() {
+        tracer.clear();
+        tracer.setSamplePeriod(1);
+    }
+
+    @After
+    public void disableTracing() {
+        tracer.setSamplePeriod(0);
+        tracer.clear();
+    }
+
+    @Test
+    public void tracer_whenChainIsSampled_thenRecordEachLink() {
+        Getty.uncached(MAP)
+            .get(GOOD_GETTER)
+            .getOrDefault(i -> (Integer) null, DEFAULT_VALUE)
+            .get(i -> { throw new IllegalStateException(); })
+            .get();
+
+        final List<GettyTracer.Trace> traces = tracer.getTraces();
+        assertThat(traces, hasSize(1));
+        assertThat(traces.get(0).getHeadType(), equalTo((Object) MAP.getClass()));
+
+        final List<GettyTracer.Link> links = traces.get(0).getLinks();
+        assertThat(links, hasSize(3));
+        assertThat(links.get(0).getInputType(), equalTo((Object) MAP.getClass()));
+        assertThat(links.get(0).getOutcome(), equalTo(GettyTracer.Outcome.VALUE));
+        assertThat(links.get(1).getOutcome(), equalTo(GettyTracer.Outcome.NULL));
+        assertThat(links.get(2).getInputType(), equalTo((Object) Integer.class)); // The default value
+        assertThat(links.get(2).getOutcome(), equalTo(GettyTracer.Outcome.EXCEPTION));
+        assertThat(links.get(2).getExceptionType(), equalTo((Object) IllegalStateException.class));
+        assertThat(traces.get(0).toString(), containsString("Integer -> IllegalStateException"));
+    }
+
+    @Test
+    public void tracer_whenWalkFails_thenRecordFailedLink() {
+        final Integer value = Getty.uncached(MAP)
+            .repeat(m -> { throw new IllegalStateException(); })
+            .get(GOOD_GETTER)
+            .get();
+
+        assertThat(value, nullValue());
+        final List<GettyTracer.Link> links = tracer.getTraces().get(0).getLinks();
+        assertThat(links, hasSize(2));
+        assertThat(links.get(0).getOutcome(), equalTo(GettyTracer.Outcome.EXCEPTION));
+        assertThat(links.get(0).getExceptionType(), equalTo((Object) IllegalStateException.class));
+    }
+
+    @Test
+    public void tracer_whenSamplePeriodIsSet_thenSampleOneInN() {
+        tracer.setSamplePeriod(4);
+        final long before = tracer.getTraceCount();
+        for (int i = 0; i < 4_000; i++) {
+            Getty.uncached(MAP).get(GOOD_GETTER).get();
+        }
+        final long sampled = tracer.getTraceCount() - before;
+        assertThat(sampled, allOf(greaterThan(800L), lessThan(1_200L))); // 1000 +/- 7 std. dev.
+
+        tracer.setSamplePeriod(0);
+        Getty.uncached(MAP).get(GOOD_GETTER).get();
+        assertThat(tracer.getTraceCount() - before, equalTo(sampled));
+    }
+
+    @Test
+    public void tracer_whenBufferIsFull_thenKeepMostRecentTraces() {
+        final GettyTracer small = new GettyTracer(3, 1); // Rounded up to 4 slots
+        for (int i = 0; i < 10; i++) {
+            small.sample(i).finish();
+        }
+
+        assertThat(small.getTraceCount(), equalTo(10L));
+        assertThat(small.getTraces(), hasSize(4));
+    }
+
+    @Test
+    public void tracer_whenCalledThroughJmx_thenDumpTraces() throws Exception {
+        Getty.uncached(MAP).get(GOOD_GETTER).getAndCache();
+
+        GettyTracer.registerMBean();
+        try {
+            final String[] dump = (String[]) ManagementFactory.getPlatformMBeanServer().invoke(
+                new ObjectName(GettyTracer.OBJECT_NAME), "dumpTraces", new Object[0], new String[0]
+            );
+            assertThat(dump.length, equalTo(1));
+            assertThat(dump[0], containsString("-> VALUE"));
+        } finally {
+            GettyTracer.unregisterMBean();
+        }
+    }
+
+    @Test
+    public void tracer_whenMBeanIsNotRegistered_thenDoNotExposeItOverJmx() throws Exception {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Getty.uncached(MAP).get(GOOD_GETTER).get();
+
+        assertThat(server.isRegistered(new ObjectName(GettyTracer.OBJECT_NAME)), is(false));
+
+        GettyTracer.registerMBean();
+        GettyTracer.unregisterMBean();
+        assertThat(server.isRegistered(new ObjectName(GettyTracer.OBJECT_NAME)), is(false));
+    }
+}
@@ -0,0 +1,153 @@
+package org.haozhang.getty;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GettyVersionedTest extends GettyTestSupport {
+    @Test
+    public void cached_givenUnversionedHead_whenHeadIsMutated_thenReuseStaleIntermediate() {
+        final Config config = new Config("a");
+        assertThat(resolve(Getty.cached(config)), equalTo("a"));
+
+        config.update("b");
+        assertThat(resolve(Getty.cached(config)), equalTo("a")); // The equal Settings is reused.
+        Getty.cached(config).get();
+    }
+
+    @Test
+    public void cached_givenVersionedHead_whenHeadIsMutated_thenDropStaleIntermediates() {
+        final VersionedConfig config = new VersionedConfig("a");
+        assertThat(resolve(Getty.cached(config)), equalTo("a"));
+
+        config.update("b");
+        assertThat(resolve(Getty.cached(config)), equalTo("b"));
+        Getty.cached(config).get();
+    }
+
+    @Test
+    public void cached_givenVersionStamp_whenHeadIsMutated_thenDropStaleIntermediates() {
+        final Config config = new Config("a");
+        assertThat(resolve(Getty.cached(config, Config::getUpdates)), equalTo("a"));
+
+        config.update("b");
+        assertThat(resolve(Getty.cached(config, Config::getUpdates)), equalTo("b"));
+        Getty.cached(config).get();
+    }
+
+    @Test
+    public void cached_givenVersionedHead_whenVersionIsUnchanged_thenReuseInstances() {
+        final VersionedConfig config = new VersionedConfig("a");
+        final Getty<VersionedConfig> head = Getty.cached(config);
+        resolve(head);
+        final int instances = CACHE.get(config).size();
+
+        assertThat(Getty.cached(config), sameInstance(head));
+        assertThat(resolve(Getty.cached(config)), equalTo("a"));
+        assertThat(CACHE.get(config).size(), equalTo(instances));
+        Getty.cached(config).get();
+    }
+
+    @Test
+    public void validate_whenVersionChangesConcurrently_thenDoNotReuseStaleInstances()
+        throws Exception {
+        final CountDownLatch clearing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean first = new AtomicBoolean(true);
+
+        // Stall the first thread to see the new version while it drops the instances.
+        final GettyChain chain = new GettyChain(MAP, CACHE) {
+            @Override
+            public void clear() {
+                if (first.compareAndSet(true, false)) {
+                    clearing.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.clear();
+            }
+        };
+        chain.put(GOOD_VALUE, Getty.uncached(GOOD_VALUE));
+
+        final Thread stalled = new Thread(() -> chain.validate(1));
+        stalled.start();
+        try {
+            assertThat(clearing.await(5, TimeUnit.SECONDS), is(true));
+
+            chain.validate(1);
+            assertThat(chain.isEmpty(), is(true));
+        } finally {
+            release.countDown();
+            stalled.join();
+        }
+    }
+
+    private static String resolve(Getty<? extends Config> head) {
+        return head.get(Config::getSettings).get(Settings::getValue).getAndCache();
+    }
+
+    // A mutable head which returns a new, equal Settings object after each update
+    private static class Config {
+        private String value;
+        private long updates;
+
+        private Config(String value) {
+            this.value = value;
+        }
+
+        void update(String value) {
+            this.value = value;
+            updates++;
+        }
+
+        long getUpdates() {
+            return updates;
+        }
+
+        Settings getSettings() {
+            return new Settings(value);
+        }
+    }
+
+    private static final class VersionedConfig extends Config implements Versioned {
+        private VersionedConfig(String value) {
+            super(value);
+        }
+
+        @Override
+        public long getVersion() {
+            return getUpdates();
+        }
+    }
+
+    // Settings are identified by their kind, not by their value.
+    private static final class Settings {
+        private final String value;
+
+        private Settings(String value) {
+            this.value = value;
+        }
+
+        String getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Settings;
+        }
+
+        @Override
+        public int hashCode() {
+            return Settings.class.hashCode();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.haozhang.getty;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class HedgedGetterTest extends GettyTestSupport {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @After
+    public void shutDownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void apply_whenPrimaryIsFast_thenDoNotHedge() {
+        final HedgedGetter<Map<Integer, Integer>, Integer> hedged =
+            GOOD_GETTER.withHedging(executor, 1, TimeUnit.SECONDS);
+
+        assertThat(Getty.of(MAP).get(hedged).get(), equalTo(GOOD_VALUE));
+        assertThat(hedged.getHedgeCount(), equalTo(0L));
+    }
+
+    @Test
+    public void apply_whenPrimaryIsSlow_thenReturnBackupValue() {
+        final Getter<Map<Integer, Integer>, Integer> slowOnce = map -> {
+            if (1 == calls.incrementAndGet()) {
+                sleep(2_000);
+            }
+            return map.get(GOOD_KEY);
+        };
+        final HedgedGetter<Map<Integer, Integer>, Integer> hedged =
+            slowOnce.withHedging(executor, 10, TimeUnit.MILLISECONDS);
+
+        final long start = System.nanoTime();
+        assertThat(Getty.of(MAP).get(hedged).get(), equalTo(GOOD_VALUE));
+        assertThat(System.nanoTime() - start, lessThan(TimeUnit.SECONDS.toNanos(1)));
+        assertThat(hedged.getHedgeCount(), equalTo(1L));
+    }
+
+    @Test
+    public void apply_whenPrimaryFails_thenReturnBackupValueWithoutCallingHandler() {
+        final Getter<Map<Integer, Integer>, Integer> failOnce = map -> {
+            if (1 == calls.incrementAndGet()) {
+                throw new IllegalStateException();
+            }
+            return map.get(GOOD_KEY);
+        };
+        final ExceptionHandlerFunction<Map<Integer, Integer>, Integer> handler = (map, e) -> -1;
+
+        assertThat(
+            Getty.of(MAP).get(failOnce.withHedging(executor, 1, TimeUnit.SECONDS), handler).get(),
+            equalTo(GOOD_VALUE)
+        );
+    }
+
+    @Test
+    public void apply_whenBothAttemptsFail_thenCallHandlerWithPrimaryException() {
+        final Getter<Map<Integer, Integer>, Integer> failing = map -> {
+            throw 1 == calls.incrementAndGet()
+                ? new IllegalStateException()
+                : new UnsupportedOperationException();
+        };
+        final ExceptionHandlerFunction<Map<Integer, Integer>, Integer> handler =
+            (map, e) -> e instanceof IllegalStateException ? -1 : 0;
+
+        assertThat(
+            Getty.of(MAP).get(failing.withHedging(executor, 1, TimeUnit.SECONDS), handler).get(),
+            equalTo(-1)
+        );
+        assertThat(calls.get(), equalTo(2));
+    }
+
+    @Test
+    public void apply_whenBudgetIsSpent_thenWaitForPrimary() {
+        final Getter<Map<Integer, Integer>, Integer> slow = map -> {
+            sleep(20);
+            return map.get(GOOD_KEY);
+        };
+        final HedgedGetter<Map<Integer, Integer>, Integer> hedged =
+            new HedgedGetter<>(slow, executor, 0, 1, TimeUnit.MILLISECONDS, 0);
+
+        for (int i = 0; i < 15; i++) {
+            assertThat(Getty.of(MAP).get(hedged).get(), equalTo(GOOD_VALUE));
+        }
+        assertThat(hedged.getHedgeCount(), equalTo(10L)); // The initial burst only
+    }
+
+    @Test
+    public void apply_givenPercentile_whenPrimariesAreFast_thenLowerDelay() throws Exception {
+        final HedgedGetter<Map<Integer, Integer>, Integer> hedged =
+            GOOD_GETTER.withHedging(executor, 0.5, 10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 256; i++) {
+            Getty.of(MAP).get(hedged).get();
+        }
+        for (int i = 0; i < 100 && hedged.getDelay(TimeUnit.SECONDS) >= 10; i++) {
+            Thread.sleep(10); // Latencies are recorded when the attempts complete.
+        }
+        assertThat(hedged.getDelay(TimeUnit.MILLISECONDS), lessThan(1_000L));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
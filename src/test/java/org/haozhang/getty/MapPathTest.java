@@ -0,0 +1,70 @@
+package org.haozhang.getty;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class MapPathTest extends GettyTestSupport {
+    // {"orders": [{"customer": {"address": {"zip": "12345"}, "first.name": "Hao"}}], "tags": ["a"]}
+    private static final Map<String, Object> JSON = new HashMap<>();
+
+    static {
+        final Map<String, Object> customer = new HashMap<>();
+        customer.put("address", Collections.singletonMap("zip", "12345"));
+        customer.put("first.name", "Hao");
+
+        JSON.put("orders", Collections.singletonList(Collections.singletonMap("customer", customer)));
+        JSON.put("tags", new String[] {"a"});
+    }
+
+    @Test
+    public void compile_whenPathExists_thenReturnValue() {
+        assertThat(MapPath.compile("orders[0].customer.address.zip").apply(JSON), equalTo("12345"));
+        assertThat(MapPath.compile("orders[0].customer['first.name']").apply(JSON), equalTo("Hao"));
+        assertThat(MapPath.compile("tags[0]").apply(JSON), equalTo("a"));
+    }
+
+    @Test
+    public void compile_whenPathIsMissing_thenReturnNull() {
+        assertThat(MapPath.compile("orders[1].customer").apply(JSON), nullValue());
+        assertThat(MapPath.compile("orders.customer").apply(JSON), nullValue());
+        assertThat(MapPath.compile("tags[0].length").apply(JSON), nullValue());
+        assertThat(MapPath.compile("missing[0].key").apply(JSON), nullValue());
+    }
+
+    @Test
+    public void compile_whenExpressionIsCached_thenReturnSameGetter() {
+        assertThat(MapPath.compile("orders[0]"), sameInstance(MapPath.compile("orders[0]")));
+    }
+
+    @Test
+    public void compile_whenExpressionIsMalformed_thenThrowIllegalArgumentException() {
+        for (String expression : Arrays.asList("", "a.", ".a", "a..b", "a[", "a[x]", "a[-1]", "a[0]b")) {
+            try {
+                MapPath.compile(expression);
+                throw new AssertionError("Expected failure for: " + expression);
+            } catch (IllegalArgumentException exception) {
+                assertThat(exception.getMessage(), containsString(expression));
+            }
+        }
+    }
+
+    @Test
+    public void gettyIntegration() {
+        final String zip = Getty.of(JSON)
+            .getOrDefault(MapPath.<Map<String, Object>, String>compile("orders[0].customer.address.zip"), "00000")
+            .get();
+        final String missing = Getty.of(JSON)
+            .getOrDefault(MapPath.<Map<String, Object>, String>compile("orders[3].customer.address.zip"), "00000")
+            .get();
+
+        assertThat(zip, equalTo("12345"));
+        assertThat(missing, equalTo("00000"));
+    }
+}
@@ -0,0 +1,123 @@
+package org.haozhang.getty;
+
+import org.haozhang.getty.MappedResultSink.Type;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class MappedResultSinkTest extends GettyTestSupport {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void write_whenValuesExceedSegment_thenReadThemBackInOrder() throws Exception {
+        final Path directory = folder.getRoot().toPath().resolve("results");
+        final List<Object> values = Arrays.asList(
+            GOOD_VALUE, null, 42L, 1.5, "h\u00e9llo", new byte[] {1, 2, 3}, (short) 7, 2.5f, ""
+        );
+
+        try (MappedResultSink sink = new MappedResultSink(directory, 16)) {
+            for (Object value : values) {
+                sink.write(value);
+            }
+            assertThat(sink.getCount(), equalTo((long) values.size()));
+        }
+        assertThat(Files.list(directory).count(), greaterThan(1L));
+
+        final List<Object> read = new ArrayList<>();
+        try (MappedResultReader reader = new MappedResultReader(directory)) {
+            while (reader.next()) {
+                read.add(reader.getValue());
+            }
+        }
+
+        assertThat(read, hasSize(values.size()));
+        assertThat(read.subList(0, 5), contains(GOOD_VALUE, null, 42L, 1.5, "h\u00e9llo"));
+        assertThat((byte[]) read.get(5), equalTo(new byte[] {1, 2, 3}));
+        assertThat(read.subList(6, 9), contains(7, 2.5, ""));
+    }
+
+    @Test
+    public void reader_whenScanningStrings_thenExposeBytesWithoutCopying() throws Exception {
+        final Path directory = folder.getRoot().toPath();
+        try (MappedResultSink sink = new MappedResultSink(directory, 1024)) {
+            sink.write(Getty.of(MAP).get(GOOD_GETTER).get(String::valueOf).get());
+        }
+
+        try (MappedResultReader reader = new MappedResultReader(directory)) {
+            assertThat(reader.next(), is(true));
+            assertThat(reader.getType(), equalTo(Type.STRING));
+
+            final ByteBuffer bytes = reader.getBytes();
+            assertThat(bytes.isReadOnly(), is(true));
+            assertThat(bytes.isDirect(), is(true));
+            assertThat(bytes, equalTo(ByteBuffer.wrap("1".getBytes(StandardCharsets.UTF_8))));
+            assertThat(reader.next(), is(false));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void reader_whenTypeDoesNotMatch_thenThrowException() throws Exception {
+        final Path directory = folder.getRoot().toPath();
+        try (MappedResultSink sink = new MappedResultSink(directory, 1024)) {
+            sink.writeLong(1);
+        }
+
+        try (MappedResultReader reader = new MappedResultReader(directory)) {
+            reader.next();
+            reader.getInt();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void write_whenValueExceedsSegment_thenThrowException() throws Exception {
+        try (MappedResultSink sink = new MappedResultSink(folder.getRoot().toPath(), 16)) {
+            sink.writeBytes(new byte[16]);
+        }
+    }
+
+    @Test
+    public void write_whenValueFillsSegment_thenReadItBack() throws Exception {
+        final Path directory = folder.getRoot().toPath();
+        try (MappedResultSink sink = new MappedResultSink(directory, 16)) {
+            sink.writeInt(GOOD_VALUE);
+            sink.writeBytes(new byte[16 - 1 - Integer.BYTES]); // Moves on to a second segment
+        }
+        assertThat(Files.list(directory).count(), equalTo(2L));
+
+        try (MappedResultReader reader = new MappedResultReader(directory)) {
+            assertThat(reader.next(), is(true));
+            assertThat(reader.getInt(), equalTo(GOOD_VALUE));
+            assertThat(reader.next(), is(true));
+            assertThat(reader.getBytes().remaining(), equalTo(16 - 1 - Integer.BYTES));
+            assertThat(reader.next(), is(false));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void write_whenLengthPrefixedValueExceedsSegmentByOneByte_thenThrowException()
+        throws Exception {
+        try (MappedResultSink sink = new MappedResultSink(folder.getRoot().toPath(), 16)) {
+            sink.writeBytes(new byte[16 - Integer.BYTES]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void write_whenTypeIsUnsupported_thenThrowException() throws Exception {
+        try (MappedResultSink sink = new MappedResultSink(folder.getRoot().toPath(), 16)) {
+            sink.write((Map<Integer, Integer>) MAP);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.haozhang.getty;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assume.assumeThat;
+
+public class PropertyPathTest extends GettyTestSupport {
+    public static class A {
+        private final B b;
+
+        public A(B b) {
+            this.b = b;
+        }
+
+        public B getB() {
+            return b;
+        }
+    }
+
+    public static class B {
+        public int getCount() {
+            return GOOD_VALUE;
+        }
+
+        public boolean isEmpty() {
+            return false;
+        }
+
+        public String name() {
+            return "b";
+        }
+
+        public Hidden getHidden() {
+            return new Hidden();
+        }
+    }
+
+    // Not public, so its getters cannot be linked through LambdaMetafactory.
+    static class Hidden {
+        public String getValue() {
+            return "hidden";
+        }
+    }
+
+    // A bean class which only exists in a child class loader, as in a webapp or plugin, with a
+    //   private nested DTO whose getters Getty's lookup cannot access
+    private static final String CHILD_BEAN_SOURCE = String.join("\n",
+        "package ext;",
+        "public class Bean {",
+        "    public Bean getSelf() { return this; }",
+        "    public String getName() { return \"child\"; }",
+        "    public Details getDetails() { return new Details(); }",
+        "    private static class Details {",
+        "        public String getValue() { return \"details\"; }",
+        "    }",
+        "}"
+    );
+
+    private static final A A_WITH_B = new A(new B());
+    private static final A A_WITHOUT_B = new A(null);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compile_whenPathExists_thenReturnValue() {
+        assertThat(PropertyPath.compile(A.class, "b.count").apply(A_WITH_B), equalTo(GOOD_VALUE));
+        assertThat(PropertyPath.compile(A.class, "b.empty").apply(A_WITH_B), equalTo(false));
+        assertThat(PropertyPath.compile(A.class, "b.name").apply(A_WITH_B), equalTo("b"));
+        assertThat(PropertyPath.compile(A.class, "b.hidden.value").apply(A_WITH_B), equalTo("hidden"));
+    }
+
+    @Test
+    public void compile_whenBeanIsLoadedByChildClassLoader_thenReturnValue() throws Exception {
+        try (URLClassLoader loader = compileChildBean()) {
+            final Class<Object> type = (Class<Object>) loader.loadClass("ext.Bean");
+            final Object bean = type.getConstructor().newInstance();
+
+            assertThat(PropertyPath.compile(type, "self.name").apply(bean), equalTo("child"));
+        }
+    }
+
+    @Test
+    public void compile_whenGetterIsDeclaredByPrivateNestedClass_thenReturnValue() throws Exception {
+        try (URLClassLoader loader = compileChildBean()) {
+            final Class<Object> type = (Class<Object>) loader.loadClass("ext.Bean");
+            final Object bean = type.getConstructor().newInstance();
+
+            assertThat(PropertyPath.compile(type, "details.value").apply(bean), equalTo("details"));
+        }
+    }
+
+    @Test
+    public void compile_whenIntermediateValueIsNull_thenReturnNull() {
+        assertThat(PropertyPath.compile(A.class, "b.count").apply(A_WITHOUT_B), nullValue());
+    }
+
+    @Test
+    public void compile_whenPathIsCached_thenReturnSameGetter() {
+        assertThat(PropertyPath.compile(A.class, "b.name"), sameInstance(PropertyPath.compile(A.class, "b.name")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_whenPropertyDoesNotExist_thenThrowIllegalArgumentException() {
+        PropertyPath.compile(A.class, "b.missing");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_whenPropertyIsEmpty_thenThrowIllegalArgumentException() {
+        PropertyPath.compile(A.class, "b..name");
+    }
+
+    @Test
+    public void gettyIntegration() {
+        final Integer count = Getty.of(A_WITHOUT_B)
+            .getOrDefault(PropertyPath.<A, Integer>compile(A.class, "b.count"), DEFAULT_VALUE)
+            .get();
+
+        assertThat(count, equalTo(DEFAULT_VALUE));
+    }
+
+    // Compile the child bean class and return a child class loader which loads it, skipping the
+    //   test if no compiler is available.
+    private URLClassLoader compileChildBean() throws Exception {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeThat(compiler, notNullValue());
+
+        final File source = new File(folder.newFolder("ext"), "Bean.java");
+        Files.write(source.toPath(), CHILD_BEAN_SOURCE.getBytes(StandardCharsets.UTF_8));
+        final String output = folder.getRoot().getPath();
+        assertThat(compiler.run(null, null, null, "-d", output, source.getPath()), equalTo(0));
+
+        return new URLClassLoader(
+            new URL[] {folder.getRoot().toURI().toURL()}, getClass().getClassLoader()
+        );
+    }
+}
@@ -0,0 +1,57 @@
+package org.haozhang.getty;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class TypedExceptionHandlerTest extends GettyTestSupport {
+    private static final TypedExceptionHandler<Object, String> HANDLER = ExceptionHandlerFunction
+        .<Object, String>byType()
+        .on(RuntimeException.class, (o, e) -> "runtime")
+        .on(IllegalArgumentException.class, (o, e) -> "illegalArgument");
+
+    @Test
+    public void handleException_whenTypeIsRegistered_thenUseItsHandler() {
+        assertThat(HANDLER.handleException(null, new IllegalArgumentException()), equalTo("illegalArgument"));
+        assertThat(HANDLER.handleException(null, new RuntimeException()), equalTo("runtime"));
+    }
+
+    @Test
+    public void handleException_whenOnlySupertypeIsRegistered_thenUseMostSpecificHandler() {
+        assertThat(HANDLER.handleException(null, new NumberFormatException()), equalTo("illegalArgument"));
+        assertThat(HANDLER.handleException(null, new NullPointerException()), equalTo("runtime"));
+    }
+
+    @Test
+    public void handleException_whenNoTypeMatches_thenUseFallback() {
+        assertThat(HANDLER.handleException(null, new Exception()), nullValue());
+        assertThat(
+            HANDLER.otherwise((o, e) -> "fallback").handleException(null, new Exception()),
+            equalTo("fallback")
+        );
+    }
+
+    @Test
+    public void on_whenHandlerIsAdded_thenLeaveOriginalUnchanged() {
+        final TypedExceptionHandler<Object, String> extended =
+            HANDLER.on(NullPointerException.class, (o, e) -> "nullPointer");
+
+        assertThat(extended.handleException(null, new NullPointerException()), equalTo("nullPointer"));
+        assertThat(HANDLER.handleException(null, new NullPointerException()), equalTo("runtime"));
+    }
+
+    @Test
+    public void gettyIntegration() {
+        final Integer value = Getty.of(MAP)
+            .getNonNull(NULL_GETTER, ExceptionHandlerFunction
+                .<Map<Integer, Integer>, Integer>byType()
+                .on(NullPointerException.class, (m, e) -> DEFAULT_VALUE)
+                .otherwise((m, e) -> -DEFAULT_VALUE))
+            .get();
+
+        assertThat(value, equalTo(DEFAULT_VALUE));
+    }
+}
@@ -0,0 +1,76 @@
+package org.haozhang.getty;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class JfrEventRecorderTest extends GettyTestSupport {
+    @Test
+    public void recorder_whenJfrIsAvailable_thenUseJfrEvents() {
+        assertThat(EventRecorder.INSTANCE, instanceOf(JfrEventRecorder.class));
+    }
+
+    @Test
+    public void recorder_whenRecording_thenEmitEvents() throws Exception {
+        final List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("org.haozhang.getty.ChainEvaluation").withThreshold(Duration.ZERO);
+            recording.enable("org.haozhang.getty.HandlerInvocation");
+            recording.enable("org.haozhang.getty.DefaultFallback");
+            recording.enable("org.haozhang.getty.CacheInsert");
+            recording.enable("org.haozhang.getty.CacheEvict");
+            recording.start();
+
+            final ExceptionHandlerFunction<Map<Integer, Integer>, Integer> handler = (map, e) -> null;
+            Getty.uncached(MAP)
+                .get(GOOD_GETTER)
+                .get(Integer::doubleValue)
+                .get();
+            Getty.uncached(MAP)
+                .get((Getter<Map<Integer, Integer>, Integer>) (Getter<?, ?>) BAD_GETTER, handler)
+                .getOrDefault(i -> null, DEFAULT_VALUE)
+                .get();
+            Getty.cached(MAP).get(GOOD_GETTER).get();
+
+            recording.stop();
+            final Path file = Files.createTempFile("getty", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        final Map<String, List<RecordedEvent>> byType = events.stream()
+            .filter(event -> event.getEventType().getName().startsWith("org.haozhang.getty."))
+            .collect(Collectors.groupingBy(event -> event.getEventType().getName().substring(19)));
+
+        assertThat(byType.get("ChainEvaluation"), hasSize(2));
+        assertThat(
+            byType.get("ChainEvaluation").stream()
+                .map(event -> event.getInt("depth"))
+                .collect(Collectors.toList()),
+            contains(2, 2)
+        );
+        assertThat(byType.get("HandlerInvocation"), hasSize(1));
+        assertThat(
+            byType.get("HandlerInvocation").get(0).getClass("exceptionType").getName(),
+            equalTo(RuntimeException.class.getName())
+        );
+        assertThat(byType.get("DefaultFallback"), hasSize(1));
+        assertThat(byType.get("CacheInsert"), hasSize(2)); // The head and one link
+        assertThat(byType.get("CacheEvict").get(0).getInt("instances"), equalTo(2));
+    }
+}